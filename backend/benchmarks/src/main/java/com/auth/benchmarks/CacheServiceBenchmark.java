@@ -0,0 +1,100 @@
+package com.auth.benchmarks;
+
+import com.auth.cache.CacheService;
+import com.auth.cache.UsernameIndex;
+import com.auth.metrics.Metrics;
+import com.auth.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// CacheService lookups and inserts. users is the number of distinct users requested: up to 10000 they
+// all fit in the cache, beyond that every miss loads from the (in-memory) repository and evicts.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheServiceBenchmark {
+    private static final int KEY_COUNT = 1 << 20;
+
+    @Param({"1000", "10000", "100000"})
+    private int users;
+
+    @Param({"UNIFORM", "ZIPFIAN", "SORTED"})
+    private KeyDistribution distribution;
+
+    private CacheService cacheService;
+    private List<User> rows;
+    private int[] sample;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = Wiring.users(users);
+        Map<String, User> byUsername = new HashMap<>();
+        for (User user : rows) {
+            byUsername.put(user.getUsername(), user);
+        }
+        UsernameIndex usernameIndex = new UsernameIndex();
+        cacheService = new CacheService();
+        Wiring.inject(cacheService, "userRepository", Wiring.userRepository(byUsername, List.of()));
+        Wiring.inject(cacheService, "usernameIndex", usernameIndex);
+        Wiring.inject(cacheService, "metrics", new Metrics());
+        cacheService.registerTimers();
+
+        sample = distribution.sample(users, KEY_COUNT, 42);
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = rows.get(sample[i]).getUsername();
+        }
+        // Warm the cache with the first pass over the keys
+        for (int i = 0; i < Math.min(users, KEY_COUNT); i++) {
+            cacheService.getUserByUsername(keys[i]);
+        }
+    }
+
+    @Benchmark
+    public User get(Cursor cursor) {
+        return cacheService.getUserByUsername(keys[cursor.next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public User getContended(Cursor cursor) {
+        return cacheService.getUserByUsername(keys[cursor.next++ & (KEY_COUNT - 1)]);
+    }
+
+    // Replaces the cached copy, or inserts and evicts once the cache is full
+    @Benchmark
+    public void put(Cursor cursor) {
+        cacheService.addUserToCache(rows.get(sample[cursor.next++ & (KEY_COUNT - 1)]));
+    }
+
+    // A miss for a username that does not exist: the negative cache answers after the first one
+    @Benchmark
+    public User getAbsent(Cursor cursor) {
+        return cacheService.getUserByUsername("absent" + (cursor.next++ & 1023));
+    }
+}
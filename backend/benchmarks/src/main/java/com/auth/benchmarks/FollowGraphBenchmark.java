@@ -0,0 +1,96 @@
+package com.auth.benchmarks;
+
+import com.auth.cache.FollowGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// FollowGraph queries on a graph of edges follows, FOLLOWING_PER_USER per user with uniformly random
+// followees. The adjacency memory of each graph (FollowGraph.getStats().adjacencyBytes) is printed
+// at setup, so bytes per edge can be read off the run log next to the timings.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FollowGraphBenchmark {
+    private static final int FOLLOWING_PER_USER = 50;
+    private static final int QUERY_COUNT = 1 << 16;
+
+    @Param({"1000000", "10000000"})
+    private int edges;
+
+    private FollowGraph followGraph;
+    private int users;
+    private long[] queryA;
+    private long[] queryB;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        users = edges / FOLLOWING_PER_USER;
+        Random random = new Random(42);
+        followGraph = new FollowGraph();
+        for (long follower = 1; follower <= users; follower++) {
+            for (int i = 0; i < FOLLOWING_PER_USER; i++) {
+                followGraph.addEdge(follower, 1 + random.nextInt(users));
+            }
+        }
+        long bytes = ((Number) followGraph.getStats().get("adjacencyBytes")).longValue();
+        long actualEdges = ((Number) followGraph.getStats().get("edges")).longValue();
+        System.out.printf("%n%d edges over %d users: %d adjacency bytes, %.1f bytes/edge%n",
+            actualEdges, users, bytes, (double) bytes / actualEdges);
+
+        queryA = new long[QUERY_COUNT];
+        queryB = new long[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryA[i] = 1 + random.nextInt(users);
+            queryB[i] = 1 + random.nextInt(users);
+        }
+    }
+
+    @Benchmark
+    public boolean follows(Cursor cursor) {
+        int i = cursor.next++ & (QUERY_COUNT - 1);
+        return followGraph.follows(queryA[i], queryB[i]);
+    }
+
+    @Benchmark
+    public long[] commonFollowees(Cursor cursor) {
+        int i = cursor.next++ & (QUERY_COUNT - 1);
+        return followGraph.commonFollowees(queryA[i], queryB[i], 100);
+    }
+
+    @Benchmark
+    public long[] mutuals(Cursor cursor) {
+        return followGraph.mutuals(queryA[cursor.next++ & (QUERY_COUNT - 1)], 100);
+    }
+
+    // A follow and an unfollow, so the graph stays the same size across iterations
+    @Benchmark
+    public boolean followThenUnfollow(Cursor cursor) {
+        int i = cursor.next++ & (QUERY_COUNT - 1);
+        long follower = queryA[i];
+        long followee = users + 1 + (i & 1023);
+        followGraph.addEdge(follower, followee);
+        followGraph.removeEdge(follower, followee);
+        return followGraph.follows(follower, followee);
+    }
+}
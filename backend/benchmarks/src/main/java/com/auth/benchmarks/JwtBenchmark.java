@@ -0,0 +1,88 @@
+package com.auth.benchmarks;
+
+import com.auth.security.JwtUtil;
+import com.auth.security.VerifiedTokenCache;
+import com.auth.service.SessionManager;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Token issue and verification, and the per-request work of JwtRequestFilter before and after the
+// verified-token cache: a full parse and HMAC check per request versus a digest, a cache hit and the
+// session check. tokens is how many distinct tokens the requests cycle through.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"1", "1000"})
+    private int tokens;
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+    private final SessionManager sessionManager = new SessionManager();
+    private UserDetails userDetails;
+    private String[] issued;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userDetails = new User("user00000001", "", new ArrayList<>());
+        issued = new String[tokens];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < tokens; i++) {
+            String username = Wiring.username(i);
+            issued[i] = jwtUtil.generateToken(new User(username, "", new ArrayList<>()));
+            long expiresAt = jwtUtil.extractExpiration(issued[i]).getTime();
+            sessionManager.createSession(username, issued[i], expiresAt);
+            verifiedTokenCache.put(JwtUtil.digest(issued[i]), userDetails, expiresAt, now);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public Boolean validate(Cursor cursor) {
+        return jwtUtil.validateToken(issued[cursor.next++ % tokens]);
+    }
+
+    // JwtRequestFilter before the cache: every request parses and verifies the token
+    @Benchmark
+    public String filterWithoutCache(Cursor cursor) {
+        Claims claims = jwtUtil.extractAllClaims(issued[cursor.next++ % tokens]);
+        return claims.getSubject();
+    }
+
+    // JwtRequestFilter now, for a token it has seen before
+    @Benchmark
+    public boolean filterCacheHit(Cursor cursor) {
+        String tokenDigest = JwtUtil.digest(issued[cursor.next++ % tokens]);
+        long now = System.currentTimeMillis();
+        return verifiedTokenCache.get(tokenDigest, now) != null && sessionManager.isSessionValid(tokenDigest, now);
+    }
+}
@@ -0,0 +1,87 @@
+package com.auth.benchmarks;
+
+import java.util.Random;
+
+// How benchmark keys are drawn from [0, n): every key equally likely, a Zipfian skew where a few keys
+// take most of the traffic (like popular accounts), or a sorted sweep (the worst case for an
+// unbalanced tree and for LRU).
+public enum KeyDistribution {
+    UNIFORM,
+    ZIPFIAN,
+    SORTED;
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    // count keys drawn from [0, n), precomputed so the benchmark loop only indexes an array
+    public int[] sample(int n, int count, long seed) {
+        Random random = new Random(seed);
+        int[] keys = new int[count];
+        switch (this) {
+            case UNIFORM:
+                for (int i = 0; i < count; i++) {
+                    keys[i] = random.nextInt(n);
+                }
+                break;
+            case ZIPFIAN:
+                double[] cumulative = zipfCumulative(n);
+                for (int i = 0; i < count; i++) {
+                    keys[i] = rankOf(cumulative, random.nextDouble());
+                }
+                // Rank 0 is the most popular key; scatter ranks so popularity is not username order
+                int[] permutation = permutation(n, random);
+                for (int i = 0; i < count; i++) {
+                    keys[i] = permutation[keys[i]];
+                }
+                break;
+            case SORTED:
+                for (int i = 0; i < count; i++) {
+                    keys[i] = i % n;
+                }
+                break;
+            default:
+                throw new IllegalStateException(name());
+        }
+        return keys;
+    }
+
+    private static double[] zipfCumulative(int n) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int rankOf(double[] cumulative, double u) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int[] permutation(int n, Random random) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+}
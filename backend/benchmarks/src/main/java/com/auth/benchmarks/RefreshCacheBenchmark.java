@@ -0,0 +1,69 @@
+package com.auth.benchmarks;
+
+import com.auth.cache.CacheService;
+import com.auth.cache.UsernameIndex;
+import com.auth.metrics.Metrics;
+import com.auth.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// One CacheService.refreshCache() run against a users table of tableSize rows, changedPercent of which
+// changed since the last refresh. The repository is in memory, so this is the cache-side cost only;
+// every 20th run also includes the deleted-user reconciliation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshCacheBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int tableSize;
+
+    @Param({"0", "1", "10"})
+    private int changedPercent;
+
+    private CacheService cacheService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> rows = Wiring.users(tableSize);
+        Map<String, User> byUsername = new HashMap<>();
+        for (User user : rows) {
+            byUsername.put(user.getUsername(), user);
+        }
+        List<User> changed = rows.subList(0, tableSize * changedPercent / 100);
+
+        cacheService = new CacheService();
+        Wiring.inject(cacheService, "userRepository", Wiring.userRepository(byUsername, changed));
+        Wiring.inject(cacheService, "usernameIndex", new UsernameIndex());
+        Wiring.inject(cacheService, "metrics", new Metrics());
+        cacheService.registerTimers();
+        for (User user : rows) {
+            cacheService.addUserToCache(user);
+        }
+        // The first run only sets the watermark
+        cacheService.refreshCache();
+    }
+
+    @Benchmark
+    public void refreshCache() {
+        cacheService.refreshCache();
+    }
+}
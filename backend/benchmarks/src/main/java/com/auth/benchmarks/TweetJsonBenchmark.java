@@ -0,0 +1,61 @@
+package com.auth.benchmarks;
+
+import com.auth.model.Tweet;
+import com.auth.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializing a page of tweets the way the tweet endpoints return them (author embedded, id as a
+// string, formatted timestamp). 20 is the default page size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TweetJsonBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int tweets;
+
+    // Spring Boot's mapper also picks up the java.time module from the classpath
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private List<Tweet> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> authors = Wiring.users(50);
+        LocalDateTime timestamp = LocalDateTime.now();
+        page = new ArrayList<>(tweets);
+        for (int i = 0; i < tweets; i++) {
+            Tweet tweet = new Tweet();
+            tweet.setId(1L << 40 | i);
+            tweet.setUser(authors.get(i % authors.size()));
+            tweet.setContent("Benchmark tweet number " + i + " with a #hashtag and some more text to look real");
+            tweet.setTimestamp(timestamp.minusSeconds(i));
+            page.add(tweet);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
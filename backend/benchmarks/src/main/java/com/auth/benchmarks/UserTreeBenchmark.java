@@ -0,0 +1,126 @@
+package com.auth.benchmarks;
+
+import com.auth.cache.TreeNode;
+import com.auth.cache.UserTree;
+import com.auth.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The red-black UserTree against the unbalanced BST the cache used before, building a tree of size
+// users and then looking each of them up. With SORTED keys (users registered in username order) the
+// plain BST degenerates into a list and both operations become O(n).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserTreeBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"UNIFORM", "SORTED"})
+    private KeyDistribution order;
+
+    private User[] users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> rows = Wiring.users(size);
+        int[] sequence = order == KeyDistribution.SORTED
+            ? KeyDistribution.SORTED.sample(size, size, 42)
+            : KeyDistribution.permutation(size, new Random(42));
+        users = new User[size];
+        for (int i = 0; i < size; i++) {
+            users[i] = rows.get(sequence[i]);
+        }
+    }
+
+    @Benchmark
+    public int redBlackInsertAndFind() {
+        UserTree tree = new UserTree();
+        for (User user : users) {
+            tree.put(user);
+        }
+        int found = 0;
+        for (User user : users) {
+            if (tree.find(user.getUsername()) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int plainBstInsertAndFind() {
+        PlainBst tree = new PlainBst();
+        for (User user : users) {
+            tree.put(user);
+        }
+        int found = 0;
+        for (User user : users) {
+            if (tree.find(user.getUsername()) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // The original cache tree: insert at the leaf, never rebalance
+    static final class PlainBst {
+        private TreeNode root;
+
+        void put(User user) {
+            TreeNode node = new TreeNode(user);
+            if (root == null) {
+                root = node;
+                return;
+            }
+            TreeNode current = root;
+            while (true) {
+                int cmp = user.getUsername().compareTo(current.getUser().getUsername());
+                if (cmp == 0) {
+                    current.setUser(user);
+                    return;
+                }
+                TreeNode child = cmp < 0 ? current.getLeft() : current.getRight();
+                if (child == null) {
+                    if (cmp < 0) {
+                        current.setLeft(node);
+                    } else {
+                        current.setRight(node);
+                    }
+                    return;
+                }
+                current = child;
+            }
+        }
+
+        TreeNode find(String username) {
+            TreeNode current = root;
+            while (current != null) {
+                int cmp = username.compareTo(current.getUser().getUsername());
+                if (cmp == 0) {
+                    return current;
+                }
+                current = cmp < 0 ? current.getLeft() : current.getRight();
+            }
+            return null;
+        }
+    }
+}
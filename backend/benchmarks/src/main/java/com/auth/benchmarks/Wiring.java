@@ -0,0 +1,86 @@
+package com.auth.benchmarks;
+
+import com.auth.model.User;
+import com.auth.repository.UserRepository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Builds the backend's components without a Spring context: sets @Autowired fields by reflection and
+// stands in an in-memory UserRepository, so the benchmarks measure our code rather than H2 or Hibernate.
+final class Wiring {
+
+    private Wiring() {
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        LocalDateTime updatedAt = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setUsername(username(i));
+            user.setEmail(username(i) + "@example.com");
+            user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ6zv0XhK7bS8v1Y8Xm0eKfQ9QdY5u8W");
+            user.setRole("USER");
+            user.setUpdatedAt(updatedAt);
+            users.add(user);
+        }
+        return users;
+    }
+
+    // Zero-padded so username order matches index order (the "sorted" key distribution relies on it)
+    static String username(int i) {
+        return String.format("user%08d", i);
+    }
+
+    // Answers the queries CacheService and UsernameIndex make from the given rows. changedUsers is what
+    // every findByUpdatedAtAfterOrderByUpdatedAtAsc call returns.
+    static UserRepository userRepository(Map<String, User> byUsername, List<User> changedUsers) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+            new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findByUsername":
+                        return Optional.ofNullable(byUsername.get((String) args[0]));
+                    case "existsByUsername":
+                        return byUsername.containsKey((String) args[0]);
+                    case "findByUpdatedAtAfterOrderByUpdatedAtAsc":
+                        return changedUsers;
+                    case "findExistingUsernames":
+                        List<String> existing = new ArrayList<>();
+                        for (Object username : (Collection<?>) args[0]) {
+                            if (byUsername.containsKey(username)) {
+                                existing.add((String) username);
+                            }
+                        }
+                        return existing;
+                    case "findUsernamesAfter":
+                        return new ArrayList<String>();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "InMemoryUserRepository";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,113 @@
+package com.auth.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Builds the backend's requests and sends them asynchronously over one shared HttpClient
+class ApiClient {
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final ExecutorService executor;
+    private final HttpClient client;
+
+    ApiClient(String baseUrl, int threads) {
+        this.baseUrl = baseUrl;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    }
+
+    CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    HttpRequest register(String username, String password) {
+        return post("/api/auth/register", null, String.format(
+            "{\"username\":\"%s\",\"email\":\"%s@loadtest.local\",\"password\":\"%s\"}", username, username, password));
+    }
+
+    HttpRequest login(String username, String password) {
+        return post("/api/auth/login", null, String.format(
+            "{\"username\":\"%s\",\"password\":\"%s\"}", username, password));
+    }
+
+    HttpRequest postTweet(String token, String content) {
+        return post("/api/tweets", token, "{\"content\":\"" + content + "\"}");
+    }
+
+    HttpRequest follow(String token, String username) {
+        return post("/api/follows/" + username, token, "");
+    }
+
+    HttpRequest homeFeed(String token) {
+        return get("/api/tweets/home?limit=20", token);
+    }
+
+    HttpRequest searchTweets(String token, String query) {
+        return get("/api/tweets/search?limit=20&q=" + URLEncoder.encode(query, StandardCharsets.UTF_8), token);
+    }
+
+    HttpRequest searchUsers(String token, String prefix) {
+        return get("/api/search/prefix?limit=10&q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8), token);
+    }
+
+    HttpRequest cacheStats(String token) {
+        return get("/api/cache/stats", token);
+    }
+
+    // Any request, as recorded in a trace; body is sent as JSON when not null
+    HttpRequest request(String method, String pathAndQuery, String token, String body) {
+        HttpRequest.Builder builder = authorized(HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery)), token);
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    // The JWT in a login response, or null if there is none
+    static String token(String loginResponse) {
+        Matcher matcher = TOKEN.matcher(loginResponse);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder builder, String token) {
+        builder.timeout(TIMEOUT);
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,36 @@
+package com.auth.loadtest;
+
+// The request types of the load mix, named by the key used in --mix
+enum Endpoint {
+    LOGIN("login", "POST /api/auth/login"),
+    POST_TWEET("post", "POST /api/tweets"),
+    HOME_FEED("feed", "GET /api/tweets/home"),
+    SEARCH_TWEETS("search", "GET /api/tweets/search"),
+    SEARCH_USERS("users", "GET /api/search/prefix"),
+    CACHE_STATS("cache", "GET /api/cache/stats");
+
+    private final String key;
+    private final String route;
+
+    Endpoint(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in --mix: " + key + " (use login, post, feed, search, users, cache)");
+    }
+}
@@ -0,0 +1,62 @@
+package com.auth.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint throughput and latency percentiles (milliseconds) of one measured run
+final class LatencyReport {
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private LatencyReport() {
+    }
+
+    static void print(Map<Endpoint, OpenLoopDriver.EndpointStats> stats, long durationSeconds, PrintStream out) {
+        out.println();
+        out.println("Response time = from when the request was due (coordinated-omission corrected); service time = from when it was sent");
+        out.printf("%-24s %8s %8s %8s %8s | %9s %9s %9s %9s %9s | %9s %9s%n",
+            "endpoint", "requests", "req/s", "errors", "queued",
+            "p50", "p90", "p99", "p99.9", "max", "svc p50", "svc p99");
+        for (Map.Entry<Endpoint, OpenLoopDriver.EndpointStats> entry : stats.entrySet()) {
+            OpenLoopDriver.EndpointStats endpointStats = entry.getValue();
+            Histogram response = endpointStats.responseHistogram;
+            Histogram service = endpointStats.serviceHistogram;
+            long errors = endpointStats.failures.sum();
+            for (Map.Entry<Integer, LongAdder> status : endpointStats.statuses.entrySet()) {
+                if (status.getKey() >= 400) {
+                    errors += status.getValue().sum();
+                }
+            }
+            out.printf("%-24s %8d %8.1f %8d %8d | %9.2f %9.2f %9.2f %9.2f %9.2f | %9.2f %9.2f%n",
+                entry.getKey().getRoute(), response.getTotalCount(), (double) response.getTotalCount() / durationSeconds,
+                errors, endpointStats.queued.sum(),
+                millis(response, 50), millis(response, 90), millis(response, 99), millis(response, 99.9),
+                response.getMaxValue() / NANOS_PER_MILLI,
+                millis(service, 50), millis(service, 99));
+        }
+        out.println();
+        for (Map.Entry<Endpoint, OpenLoopDriver.EndpointStats> entry : stats.entrySet()) {
+            out.printf("%-24s status codes: %s, failed: %d%n", entry.getKey().getRoute(),
+                new TreeMap<>(entry.getValue().statuses), entry.getValue().failures.sum());
+        }
+    }
+
+    // Full percentile distributions, one .hgrm file per endpoint, for HdrHistogram's plotter
+    static void writeDistributions(Map<Endpoint, OpenLoopDriver.EndpointStats> stats, Path directory) throws FileNotFoundException {
+        directory.toFile().mkdirs();
+        for (Map.Entry<Endpoint, OpenLoopDriver.EndpointStats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(directory.resolve(entry.getKey().getKey() + ".hgrm").toFile())) {
+                entry.getValue().responseHistogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,116 @@
+package com.auth.loadtest;
+
+import com.auth.AuthApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Load test for the REST API. Boots the backend in-process on a random port against a fresh embedded
+// H2 database (or targets --base-url), seeds it through the API, then drives an open-loop mix of
+// requests at --rate per second and prints throughput and latency percentiles per endpoint.
+//
+//   java -jar target/loadtest.jar --users=500 --tweets=5000 --rate=300 --duration=60 \
+//       --mix=login:2,post:18,feed:48,search:20,users:10,cache:2 --hdr-dir=results
+//
+// Rate limiting is switched off in the booted instance so the limiter does not shape the load.
+public class LoadTest {
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("users", "200");
+        DEFAULTS.put("tweets", "2000");
+        DEFAULTS.put("follows", "20");
+        DEFAULTS.put("rate", "200");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "30");
+        DEFAULTS.put("mix", "login:2,post:18,feed:48,search:20,users:10,cache:2");
+        DEFAULTS.put("threads", "16");
+        DEFAULTS.put("max-in-flight", "5000");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("base-url", "");
+        DEFAULTS.put("hdr-dir", "");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl.isEmpty()) {
+            context = boot();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        ApiClient api = new ApiClient(baseUrl, Integer.parseInt(options.get("threads")));
+        try {
+            Seeder.Seed seed = new Seeder(api, Long.parseLong(options.get("seed"))).seed(
+                Integer.parseInt(options.get("users")),
+                Integer.parseInt(options.get("tweets")),
+                Integer.parseInt(options.get("follows")));
+
+            long duration = Long.parseLong(options.get("duration"));
+            double rate = Double.parseDouble(options.get("rate"));
+            System.out.printf("Driving %.0f req/s against %s for %ds after %ss warmup%n",
+                rate, baseUrl, duration, options.get("warmup"));
+            OpenLoopDriver driver = new OpenLoopDriver(api, seed, mix(options.get("mix")), rate,
+                Integer.parseInt(options.get("max-in-flight")));
+            Map<Endpoint, OpenLoopDriver.EndpointStats> stats = driver.run(Long.parseLong(options.get("warmup")), duration);
+
+            LatencyReport.print(stats, duration, System.out);
+            if (!options.get("hdr-dir").isEmpty()) {
+                LatencyReport.writeDistributions(stats, Paths.get(options.get("hdr-dir")));
+            }
+        } finally {
+            api.close();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    // The backend on a random port with a fresh in-memory database; also used by TraceReplay.
+    // Passed as command-line arguments: builder properties are only defaults, and application.properties
+    // would switch the rate limiter back on.
+    static ConfigurableApplicationContext boot() {
+        return new SpringApplicationBuilder(AuthApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.h2.console.enabled=false",
+            "--ratelimit.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.auth=WARN",
+            "--logging.file.name=");
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !DEFAULTS.containsKey(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + "; options are --" + String.join("=, --", DEFAULTS.keySet()) + "=");
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    // "feed:50,post:20" -> weights in --mix order
+    static Map<Endpoint, Integer> mix(String spec) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] keyAndWeight = part.trim().split(":");
+            int weight = Integer.parseInt(keyAndWeight[1]);
+            if (weight > 0) {
+                weights.put(Endpoint.fromKey(keyAndWeight[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one endpoint with a positive weight");
+        }
+        return weights;
+    }
+}
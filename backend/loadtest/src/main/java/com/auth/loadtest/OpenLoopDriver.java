@@ -0,0 +1,154 @@
+package com.auth.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load: request i is due at start + i / rate no matter how earlier requests are doing, the
+// way independent users arrive. Each request's latency is measured from the time it was due, not the
+// time it was actually sent, so when the server (or this dispatcher) falls behind, the queueing delay
+// shows up in the percentiles instead of being hidden by sending less - the coordinated-omission
+// correction. The time from actual send to response is recorded separately as service time.
+// At most maxInFlight requests are outstanding. A request due while the cap is reached waits for a
+// slot instead of being dropped, and its latency still counts from when it was due, so an overloaded
+// server's worst cases stay in the percentiles; such requests are counted as queued.
+class OpenLoopDriver {
+
+    static final class EndpointStats {
+        final Recorder responseTime = new Recorder(3);
+        final Recorder serviceTime = new Recorder(3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder failures = new LongAdder(); // timeouts, refused connections
+        final LongAdder queued = new LongAdder(); // had to wait for an in-flight slot
+        Histogram responseHistogram;
+        Histogram serviceHistogram;
+
+        void reset() {
+            responseTime.getIntervalHistogram();
+            serviceTime.getIntervalHistogram();
+            statuses.clear();
+            failures.reset();
+            queued.reset();
+        }
+    }
+
+    private final ApiClient api;
+    private final Seeder.Seed seed;
+    private final Endpoint[] mix; // one slot per weight unit, picked uniformly
+    private final double rate;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    OpenLoopDriver(ApiClient api, Seeder.Seed seed, Map<Endpoint, Integer> weights, double rate, int maxInFlight) {
+        this.api = api;
+        this.seed = seed;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.mix = weights.entrySet().stream()
+            .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+            .toArray(Endpoint[]::new);
+        for (Endpoint endpoint : weights.keySet()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    // Runs warmup then measurement and returns the measured stats per endpoint
+    Map<Endpoint, EndpointStats> run(long warmupSeconds, long durationSeconds) throws InterruptedException {
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        boolean measuring = warmupSeconds == 0;
+
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * 1e9 / rate);
+            if (due >= end) {
+                break;
+            }
+            if (!measuring && due >= measureFrom) {
+                stats.values().forEach(EndpointStats::reset);
+                measuring = true;
+            }
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            Endpoint endpoint = mix[random.nextInt(mix.length)];
+            EndpointStats endpointStats = stats.get(endpoint);
+            if (!inFlight.tryAcquire()) {
+                endpointStats.queued.increment();
+                inFlight.acquire();
+            }
+            int user = random.nextInt(seed.usernames.length);
+            long sent = System.nanoTime();
+            api.send(request(endpoint, user, random)).whenComplete((response, error) -> {
+                long done = System.nanoTime();
+                inFlight.release();
+                endpointStats.responseTime.recordValue(done - due);
+                endpointStats.serviceTime.recordValue(done - sent);
+                if (error != null) {
+                    endpointStats.failures.increment();
+                    return;
+                }
+                endpointStats.statuses.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+                if (endpoint == Endpoint.LOGIN) {
+                    onLogin(user, response);
+                }
+            });
+        }
+
+        // Let outstanding requests finish (or time out) before taking the histograms
+        if (inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        for (EndpointStats endpointStats : stats.values()) {
+            endpointStats.responseHistogram = endpointStats.responseTime.getIntervalHistogram();
+            endpointStats.serviceHistogram = endpointStats.serviceTime.getIntervalHistogram();
+        }
+        return stats;
+    }
+
+    private HttpRequest request(Endpoint endpoint, int user, Random random) {
+        String token = seed.tokens.get(user);
+        switch (endpoint) {
+            case LOGIN:
+                return api.login(seed.usernames[user], Seeder.PASSWORD);
+            case POST_TWEET:
+                return api.postTweet(token, Seeder.Seed.randomTweet(random));
+            case HOME_FEED:
+                return api.homeFeed(token);
+            case SEARCH_TWEETS:
+                return api.searchTweets(token, Seeder.Seed.randomWord(random));
+            case SEARCH_USERS:
+                String username = seed.usernames[random.nextInt(seed.usernames.length)];
+                return api.searchUsers(token, username.substring(0, Math.max(1, username.length() - 1)));
+            case CACHE_STATS:
+                return api.cacheStats(token);
+            default:
+                throw new IllegalStateException(endpoint.name());
+        }
+    }
+
+    // A fresh login may push the user's oldest session out, so keep using the newest token
+    private void onLogin(int user, HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            String token = ApiClient.token(response.body());
+            if (token != null) {
+                seed.tokens.set(user, token);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.auth.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+// Creates the data the load runs against, through the public API: users (each logged in once), a
+// random follow graph and tweets written from a small vocabulary so searches find matches.
+class Seeder {
+    static final String PASSWORD = "loadtest-password";
+    private static final int CONCURRENCY = 32;
+    private static final String[] VOCABULARY = {
+        "coffee", "music", "travel", "code", "java", "spring", "weekend", "football", "movie", "book",
+        "rain", "sunny", "launch", "release", "tea", "news", "game", "pizza", "startup", "design",
+        "cloud", "cache", "latency", "deploy", "friday", "monday", "concert", "recipe", "garden", "photo"
+    };
+
+    // The seeded state the load mix draws from. Tokens are replaced as the mix logs users in again.
+    static final class Seed {
+        final String[] usernames;
+        final AtomicReferenceArray<String> tokens;
+
+        Seed(String[] usernames, AtomicReferenceArray<String> tokens) {
+            this.usernames = usernames;
+            this.tokens = tokens;
+        }
+
+        static String randomWord(Random random) {
+            return VOCABULARY[random.nextInt(VOCABULARY.length)];
+        }
+
+        static String randomTweet(Random random) {
+            return randomWord(random) + " and " + randomWord(random) + " today " + randomWord(random)
+                + " #" + randomWord(random);
+        }
+    }
+
+    private final ApiClient api;
+    private final Random random;
+
+    Seeder(ApiClient api, long seed) {
+        this.api = api;
+        this.random = new Random(seed);
+    }
+
+    Seed seed(int users, int tweets, int followsPerUser) {
+        String prefix = "lt" + Long.toString(System.currentTimeMillis() % 100000, 36) + "_";
+        String[] usernames = new String[users];
+        for (int i = 0; i < users; i++) {
+            usernames[i] = prefix + i;
+        }
+        long started = System.nanoTime();
+        AtomicReferenceArray<String> tokens = registerAndLogin(usernames).tokens;
+
+        int follows = users > 1 ? users * Math.min(followsPerUser, users - 1) : 0;
+        int[] followers = new int[follows];
+        int[] followees = new int[follows];
+        for (int f = 0; f < follows; f++) {
+            followers[f] = f % users;
+            int followee;
+            do {
+                followee = random.nextInt(users);
+            } while (followee == followers[f]);
+            followees[f] = followee;
+        }
+        run("follow", follows, f -> api.follow(tokens.get(followers[f]), usernames[followees[f]]), (f, body) -> { });
+
+        String[] contents = new String[tweets];
+        for (int t = 0; t < tweets; t++) {
+            contents[t] = Seed.randomTweet(random);
+        }
+        run("tweet", tweets, t -> api.postTweet(tokens.get(t % users), contents[t]), (t, body) -> { });
+
+        System.out.printf("Seeded %d users, %d follows, %d tweets in %.1fs%n",
+            users, follows, tweets, (System.nanoTime() - started) / 1e9);
+        return new Seed(usernames, tokens);
+    }
+
+    // Registers the given users with PASSWORD and logs each of them in once
+    Seed registerAndLogin(String[] usernames) {
+        AtomicReferenceArray<String> tokens = new AtomicReferenceArray<>(usernames.length);
+        run("register", usernames.length, i -> api.register(usernames[i], PASSWORD), (i, body) -> { });
+        run("login", usernames.length, i -> api.login(usernames[i], PASSWORD), (i, body) -> tokens.set(i, ApiClient.token(body)));
+        return new Seed(usernames, tokens);
+    }
+
+    interface ResponseHandler {
+        void accept(int index, String body);
+    }
+
+    // Sends count requests, CONCURRENCY at a time, and fails on the first non-2xx response
+    private void run(String what, int count, IntFunction<HttpRequest> request, ResponseHandler handler) {
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            permits.acquireUninterruptibly();
+            pending.add(api.send(request.apply(index))
+                .thenAccept(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException(what + " failed with " + response.statusCode() + ": " + response.body());
+                    }
+                    handler.accept(index, response.body());
+                })
+                .whenComplete((ignored, error) -> permits.release()));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    }
+}
@@ -0,0 +1,209 @@
+package com.auth.loadtest;
+
+import com.auth.trace.TraceReader;
+import com.auth.trace.TraceRecord;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.http.HttpRequest;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a trace recorded by TraceRecordingFilter against a fresh instance (booted in-process, or
+// --base-url) at the recorded arrival times divided by --speed, and compares latency per route with
+// what the trace recorded:
+//
+//   java -cp target/loadtest.jar -Dloader.main=com.auth.loadtest.TraceReplay \
+//       org.springframework.boot.loader.PropertiesLauncher --trace=traces/requests-20240101-120000.trace --speed=4
+//
+// Every user seen in the trace is registered and logged in first. Bodies are not in the trace, so a
+// tweet is replayed as synthetic text of the recorded length, a login logs in a random replayed user,
+// a registration registers a new one, and logouts are skipped so replayed tokens stay valid.
+// The trace holds server-side durations (TraceRecordingFilter wraps the whole filter chain), so they
+// are compared with the replay's service time, measured from the actual send; loopback adds only
+// tens of microseconds. Response time measured from when each request was due, which includes any
+// queueing behind a stalled server as in OpenLoopDriver, is reported alongside but not compared.
+public class TraceReplay {
+    private static final int TWEET_JSON_OVERHEAD = "{\"content\":\"\"}".length();
+
+    private static final class RouteStats {
+        final Histogram recorded = new Histogram(3);
+        final Recorder service = new Recorder(3);  // from the send
+        final Recorder response = new Recorder(3); // from when the request was due
+        final LongAdder statusChanged = new LongAdder(); // a different status class than recorded
+        final LongAdder failures = new LongAdder();
+        long skipped;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("speed", "1");
+        options.put("threads", "16");
+        options.put("max-in-flight", "5000");
+        options.put("base-url", "");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Options are --trace=, --speed=, --base-url=, --threads=, --max-in-flight=");
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        if (!options.containsKey("trace")) {
+            throw new IllegalArgumentException("--trace=<file> is required");
+        }
+
+        List<TraceRecord> records;
+        try (TraceReader reader = new TraceReader(Paths.get(options.get("trace")))) {
+            records = reader.readAll();
+        }
+        // Records are written as requests complete; replay them in arrival order
+        records.sort(Comparator.comparingLong(TraceRecord::getArrivalMicros));
+        System.out.printf("Loaded %d requests spanning %.1fs%n", records.size(),
+            records.isEmpty() ? 0 : records.get(records.size() - 1).getArrivalMicros() / 1e6);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl.isEmpty()) {
+            context = LoadTest.boot();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        ApiClient api = new ApiClient(baseUrl, Integer.parseInt(options.get("threads")));
+        try {
+            Set<String> users = new LinkedHashSet<>();
+            for (TraceRecord record : records) {
+                if (record.getUser() != null) {
+                    users.add(record.getUser());
+                }
+            }
+            Seeder.Seed seed = new Seeder(api, 42).registerAndLogin(users.toArray(new String[0]));
+            Map<String, Integer> userIndex = new HashMap<>();
+            for (int i = 0; i < seed.usernames.length; i++) {
+                userIndex.put(seed.usernames[i], i);
+            }
+
+            Map<String, RouteStats> stats = replay(api, seed, userIndex, records,
+                Double.parseDouble(options.get("speed")), Integer.parseInt(options.get("max-in-flight")));
+            print(stats, System.out);
+        } finally {
+            api.close();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<String, RouteStats> replay(ApiClient api, Seeder.Seed seed, Map<String, Integer> userIndex,
+                                                  List<TraceRecord> records, double speed, int maxInFlight)
+            throws InterruptedException {
+        Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Random random = new Random(7);
+        AtomicLong registered = new AtomicLong();
+        long start = System.nanoTime();
+
+        for (TraceRecord record : records) {
+            RouteStats routeStats = stats.computeIfAbsent(record.getMethod() + " " + record.getRoute(), key -> new RouteStats());
+            routeStats.recorded.recordValue(record.getDurationMicros() * 1000);
+
+            Integer user = record.getUser() != null ? userIndex.get(record.getUser()) : null;
+            HttpRequest request = request(api, seed, user, record, random, registered);
+            if (request == null) {
+                routeStats.skipped++;
+                continue;
+            }
+            long due = start + (long) (record.getArrivalMicros() * 1000 / speed);
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            api.send(request).whenComplete((response, error) -> {
+                long completed = System.nanoTime();
+                routeStats.service.recordValue(completed - sent);
+                routeStats.response.recordValue(completed - due);
+                inFlight.release();
+                if (error != null) {
+                    routeStats.failures.increment();
+                } else if (response.statusCode() / 100 != record.getStatus() / 100) {
+                    routeStats.statusChanged.increment();
+                }
+            });
+        }
+        if (inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        return stats;
+    }
+
+    private static HttpRequest request(ApiClient api, Seeder.Seed seed, Integer user, TraceRecord record,
+                                       Random random, AtomicLong registered) {
+        String route = record.getRoute();
+        if (route.startsWith("/api/auth/")) {
+            if (route.equals("/api/auth/login") && seed.usernames.length > 0) {
+                return api.login(seed.usernames[random.nextInt(seed.usernames.length)], Seeder.PASSWORD);
+            }
+            if (route.equals("/api/auth/register")) {
+                return api.register("replay_" + System.currentTimeMillis() % 100000 + "_" + registered.incrementAndGet(), Seeder.PASSWORD);
+            }
+            return null;
+        }
+        String token = user != null ? seed.tokens.get(user) : null;
+        String pathAndQuery = record.getQuery() != null ? record.getPath() + "?" + record.getQuery() : record.getPath();
+        String body = null;
+        if (record.getMethod().equals("POST") && route.equals("/api/tweets")) {
+            int length = (int) Math.max(1, Math.min(280, record.getBodyLength() - TWEET_JSON_OVERHEAD));
+            StringBuilder content = new StringBuilder(length);
+            while (content.length() < length) {
+                content.append(Seeder.Seed.randomWord(random)).append(' ');
+            }
+            body = "{\"content\":\"" + content.substring(0, length).trim() + "\"}";
+        } else if (record.getBodyLength() > 0) {
+            body = "{}";
+        }
+        return api.request(record.getMethod(), pathAndQuery, token, body);
+    }
+
+    private static void print(Map<String, RouteStats> stats, PrintStream out) {
+        out.println();
+        out.println("Latency in ms. rec = server time in the trace, svc = replay service time (from the send),");
+        out.println("delta = svc - rec, resp = replay response time from when the request was due (includes queueing)");
+        out.printf("%-44s %8s %8s | %9s %9s | %9s %9s | %9s %9s | %9s | %8s %8s%n",
+            "route", "requests", "skipped", "rec p50", "rec p99", "svc p50", "svc p99", "d p50", "d p99",
+            "resp p99", "status!=", "failed");
+        for (Map.Entry<String, RouteStats> entry : new TreeMap<>(stats).entrySet()) {
+            RouteStats routeStats = entry.getValue();
+            Histogram service = routeStats.service.getIntervalHistogram();
+            double recordedP50 = millis(routeStats.recorded, 50);
+            double recordedP99 = millis(routeStats.recorded, 99);
+            double serviceP50 = millis(service, 50);
+            double serviceP99 = millis(service, 99);
+            out.printf("%-44s %8d %8d | %9.2f %9.2f | %9.2f %9.2f | %+9.2f %+9.2f | %9.2f | %8d %8d%n",
+                entry.getKey(), routeStats.recorded.getTotalCount(), routeStats.skipped,
+                recordedP50, recordedP99, serviceP50, serviceP99,
+                serviceP50 - recordedP50, serviceP99 - recordedP99,
+                millis(routeStats.response.getIntervalHistogram(), 99),
+                routeStats.statusChanged.sum(), routeStats.failures.sum());
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+}
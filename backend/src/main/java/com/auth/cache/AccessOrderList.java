@@ -0,0 +1,55 @@
+package com.auth.cache;
+
+// Doubly linked list threaded through TreeNodes in access order.
+// The most recently used node is at the head and the eviction candidate at the tail,
+// so touching a node and finding the LRU victim are both O(1).
+public class AccessOrderList {
+    private TreeNode head; // most recently used
+    private TreeNode tail; // least recently used
+
+    public void addFirst(TreeNode node) {
+        node.setOlder(head);
+        node.setNewer(null);
+        if (head != null) {
+            head.setNewer(node);
+        }
+        head = node;
+        if (tail == null) {
+            tail = node;
+        }
+    }
+
+    public void moveToFront(TreeNode node) {
+        if (node == head) {
+            return;
+        }
+        unlink(node);
+        addFirst(node);
+    }
+
+    public void unlink(TreeNode node) {
+        TreeNode newer = node.getNewer();
+        TreeNode older = node.getOlder();
+        if (newer == null) {
+            head = older;
+        } else {
+            newer.setOlder(older);
+        }
+        if (older == null) {
+            tail = newer;
+        } else {
+            older.setNewer(newer);
+        }
+        node.setNewer(null);
+        node.setOlder(null);
+    }
+
+    public TreeNode leastRecentlyUsed() {
+        return tail;
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+    }
+}
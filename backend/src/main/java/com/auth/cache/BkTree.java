@@ -0,0 +1,150 @@
+package com.auth.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// BK-tree over usernames using Levenshtein distance, for "did you mean" lookups.
+// Each child hangs off its parent by its distance to the parent; by the triangle inequality a query
+// within maxDistance of the target only has to descend into children whose edge lies in
+// [d - maxDistance, d + maxDistance], which prunes most of the tree for small distances.
+// Children are kept as a sibling list (first child / next sibling) so each word costs one small node.
+public class BkTree {
+    private static final class Node {
+        final String word;
+        final int distanceToParent;
+        Node firstChild;
+        Node nextSibling;
+        boolean deleted;
+
+        Node(String word, int distanceToParent) {
+            this.word = word;
+            this.distanceToParent = distanceToParent;
+        }
+    }
+
+    // A match returned by search
+    public static final class Match {
+        private final String word;
+        private final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    public void add(String word) {
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                root = new Node(word, 0);
+                return;
+            }
+            Node node = root;
+            while (true) {
+                int distance = distance(word, node.word);
+                if (distance == 0) {
+                    node.deleted = false;
+                    return;
+                }
+                Node child = node.firstChild;
+                while (child != null && child.distanceToParent != distance) {
+                    child = child.nextSibling;
+                }
+                if (child == null) {
+                    Node inserted = new Node(word, distance);
+                    inserted.nextSibling = node.firstChild;
+                    node.firstChild = inserted;
+                    return;
+                }
+                node = child;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // BK-trees cannot unlink a node without rebuilding its subtree, so removal leaves a tombstone
+    public void remove(String word) {
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            while (node != null) {
+                int distance = distance(word, node.word);
+                if (distance == 0) {
+                    node.deleted = true;
+                    return;
+                }
+                Node child = node.firstChild;
+                while (child != null && child.distanceToParent != distance) {
+                    child = child.nextSibling;
+                }
+                node = child;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // All words within maxDistance of target, in no particular order
+    public List<Match> search(String target, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (root == null) {
+                return matches;
+            }
+            List<Node> pending = new ArrayList<>();
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.remove(pending.size() - 1);
+                int distance = distance(target, node.word);
+                if (distance <= maxDistance && !node.deleted) {
+                    matches.add(new Match(node.word, distance));
+                }
+                for (Node child = node.firstChild; child != null; child = child.nextSibling) {
+                    if (Math.abs(child.distanceToParent - distance) <= maxDistance) {
+                        pending.add(child);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    // Levenshtein distance with two rolling rows
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
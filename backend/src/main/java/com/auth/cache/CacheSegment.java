@@ -0,0 +1,161 @@
+package com.auth.cache;
+
+import com.auth.jfr.CacheEvictionEvent;
+import com.auth.model.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.StampedLock;
+
+// One stripe of the user cache: a red-black tree plus its access-order list, guarded by a StampedLock.
+// Lookups run under an optimistic read stamp and only fall back to a real read lock when a writer
+// interleaves. Hits never take the write lock; they set the node's referenced bit, and eviction gives
+// referenced nodes a second chance by moving them back to the head of the list.
+class CacheSegment {
+    // A red-black tree of n nodes is at most 2*log2(n+1) deep, so this is never hit on a consistent tree
+    private static final int MAX_OPTIMISTIC_DEPTH = 128;
+
+    private final StampedLock lock = new StampedLock();
+    private final UserTree tree = new UserTree();
+    private final AccessOrderList accessOrder = new AccessOrderList();
+    private final int capacity;
+
+    CacheSegment(int capacity) {
+        this.capacity = capacity;
+    }
+
+    TreeNode find(String username) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            TreeNode node = tree.findOptimistic(username, MAX_OPTIMISTIC_DEPTH);
+            if (lock.validate(stamp)) {
+                return node;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.find(username);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Inserts or replaces the user; returns the evicted node if room had to be made, else null
+    TreeNode put(User user, long now) {
+        long stamp = lock.writeLock();
+        try {
+            TreeNode evicted = null;
+            if (tree.size() >= capacity && tree.find(user.getUsername()) == null) {
+                evicted = evictLeastRecentlyUsed();
+            }
+
+            int sizeBefore = tree.size();
+            TreeNode node = tree.put(user);
+            if (tree.size() > sizeBefore) {
+                accessOrder.addFirst(node);
+            } else {
+                accessOrder.moveToFront(node);
+            }
+            node.setReferenced(false);
+            node.setLastAccessed(now);
+            return evicted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Idempotent upsert used by the background refresh: replaces a cached copy in place without
+    // touching its LRU position, and only inserts new users while there is spare capacity, so a
+    // refresh never evicts users that requests are actually reading.
+    void refresh(User user, long now) {
+        long stamp = lock.writeLock();
+        try {
+            TreeNode node = tree.find(user.getUsername());
+            if (node != null) {
+                node.setUser(user);
+            } else if (tree.size() < capacity) {
+                node = tree.put(user);
+                accessOrder.addFirst(node);
+                node.setLastAccessed(now);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean remove(String username) {
+        long stamp = lock.writeLock();
+        try {
+            TreeNode node = tree.remove(username);
+            if (node == null) {
+                return false;
+            }
+            accessOrder.unlink(node);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Caller holds the write lock. Referenced tail nodes are recycled to the head (bounded by size,
+    // so readers that keep touching every node cannot stall the writer); the first cold one is evicted.
+    private TreeNode evictLeastRecentlyUsed() {
+        CacheEvictionEvent event = new CacheEvictionEvent();
+        event.begin();
+        int secondChances = 0;
+        TreeNode victim = accessOrder.leastRecentlyUsed();
+        for (int scanned = tree.size(); victim != null && victim.isReferenced() && scanned > 0; scanned--) {
+            victim.setReferenced(false);
+            accessOrder.moveToFront(victim);
+            victim = accessOrder.leastRecentlyUsed();
+            secondChances++;
+        }
+        if (victim != null) {
+            accessOrder.unlink(victim);
+            tree.removeNode(victim);
+        }
+        if (event.shouldCommit()) {
+            event.username = victim != null ? victim.getUser().getUsername() : null;
+            event.secondChances = secondChances;
+            event.commit();
+        }
+        return victim;
+    }
+
+    void collect(List<User> users) {
+        long stamp = lock.readLock();
+        try {
+            tree.collect(users);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void collectNodes(List<TreeNode> nodes) {
+        long stamp = lock.readLock();
+        try {
+            tree.collectNodes(nodes);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void collectPrefixHits(String prefix, int limit, PriorityQueue<Map.Entry<String, Long>> top) {
+        long stamp = lock.readLock();
+        try {
+            tree.collectPrefixHits(prefix, limit, top);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return tree.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 
 package com.auth.cache;
 
+import com.auth.jfr.CacheLookupEvent;
+import com.auth.jfr.CacheRefreshEvent;
+import com.auth.metrics.LatencyHistogram;
+import com.auth.metrics.Metrics;
 import com.auth.model.User;
 import com.auth.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,119 +14,194 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
-import javax.swing.Spring;
-
 @Service  //The @Service annotation makes this class a Spring service, meaning it is managed by the Spring container and can be injected where needed.
 public class CacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheService.class);//initializes a logger
     private static final int MAX_CACHE_SIZE = 10000; // Maximum number of users cache can hold before eviction starts
-    private TreeNode root; // stores root node of bst
-    private int size = 0;//current number of users in cache
-    private Map<String, Long> lastAccessTime = new HashMap<>();
-    private Map<String, Integer> cacheHits = new HashMap<>();
-    private long totalRequests = 0;
-    private long cacheHitCount = 0;
-    private long cacheMissCount = 0;
+    private static final int SEGMENT_COUNT = 16; // Power of two; each segment has its own tree, LRU list and lock
+    private final CacheSegment[] segments = new CacheSegment[SEGMENT_COUNT];
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder cacheMissCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private static final int NEGATIVE_CACHE_SIZE = 10000; // Max usernames remembered as absent
+    private static final long NEGATIVE_CACHE_TTL_MILLIS = 30_000; // How long a DB miss is trusted
+    private final NegativeCache absentUsernames = new NegativeCache(NEGATIVE_CACHE_SIZE, NEGATIVE_CACHE_TTL_MILLIS);
+    private final LongAdder negativeHitCount = new LongAdder();
+    private final SingleFlight<String, User> userLoads = new SingleFlight<>(); // one DB load per missing key
+
+    private static final long REFRESH_OVERLAP_SECONDS = 5; // Re-read window, absorbs commit/clock lag
+    private static final int RECONCILE_EVERY_REFRESHES = 20; // Check for deleted users every ~5 minutes
+    private static final int RECONCILE_BATCH_SIZE = 500; // Usernames per IN (...) query
+    private volatile LocalDateTime refreshWatermark;
+    private int refreshesSinceReconcile = 0; // only touched by the scheduler thread
+
+    public CacheService() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new CacheSegment(MAX_CACHE_SIZE / SEGMENT_COUNT);
+        }
+    }
 
     @Autowired
     private UserRepository userRepository;//injects user repository to fetch user data when user is not present in cache
-    public boolean isCacheEmpty() {
-        
 
-                logger.info("Checking if cache is empty...");
-                return root == null;
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private Metrics metrics;
+
+    // Looked up once so the hot paths only pay for the recording
+    private LatencyHistogram hitTimer;
+    private LatencyHistogram missTimer;
+    private LatencyHistogram addTimer;
+    private LatencyHistogram refreshTimer;
+
+    @PostConstruct
+    public void registerTimers() {
+        hitTimer = metrics.timer("cache.getUserByUsername.hit");
+        missTimer = metrics.timer("cache.getUserByUsername.miss");
+        addTimer = metrics.timer("cache.addUserToCache");
+        refreshTimer = metrics.timer("cache.refreshCache");
+    }
+
+    public boolean isCacheEmpty() {
+                for (CacheSegment segment : segments) {
+                    if (segment.size() > 0) {
+                        return false;
+                    }
+                }
+                return true;
             }
+
+    private CacheSegment segmentFor(String username) {
+        int h = username.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
         
-    // Add a user to the cache
+    // Add a user to the cache, replacing any cached copy with the same username. Callers creating the
+    // user call invalidateAbsentUsername first; a plain cache fill leaves the negative cache alone.
     public void addUserToCache(User user) {
-        logger.info("Adding user to cache: {}", user.getUsername());
-        if (size >= MAX_CACHE_SIZE)
-        
+        long startedAt = System.nanoTime();
+        TreeNode evicted = segmentFor(user.getUsername()).put(user, System.currentTimeMillis());
+        if (evicted != null)
         {
-            evictLeastRecentlyUsed();
+            evictionCount.increment();
         }
-        
-        root = insertRec(root, user);
-        lastAccessTime.put(user.getUsername(), System.currentTimeMillis());
-        size++;
+        addTimer.recordSince(startedAt);
     }
 
-
-    private TreeNode insertRec(TreeNode root, User user) {
-        if (root == null) {
-            return new TreeNode(user);
-        }
-
-        if (user.getUsername().compareTo(root.getUser().getUsername()) < 0) {
-            root.setLeft(insertRec(root.getLeft(), user));
-        } else {
-            root.setRight(insertRec(root.getRight(), user));
-        }
-
-        return root;//return updated root node after insertion
+    // Forget a cached "user does not exist" answer, e.g. when the username is being registered
+    public void invalidateAbsentUsername(String username) {
+        absentUsernames.invalidate(username);
     }
 
-    // Retrieve user by username
+    // Retrieve user by username: cache first, then the database. Returns null if the user does not exist;
+    // callers should not query the database again themselves.
     public User getUserByUsername(String username) {
-        logger.info("Fetching user for username: {}", username);
-        totalRequests++;
+        long startedAt = System.nanoTime();
+        CacheLookupEvent event = new CacheLookupEvent(); // a no-op unless a flight recording enables it
+        event.begin();
+        totalRequests.increment();
 
-        TreeNode node = searchNodeForUsername(root, username);
+        TreeNode node = segmentFor(username).find(username);
         
         if (node == null) {
-            logger.warn("Cache MISS for username: {}", username);
-            cacheMissCount++;
-            User userFromDB = userRepository.findByUsername(username).orElse(null);
-            if (userFromDB != null) {
-                addUserToCache(userFromDB);//Fetches the user from the database and adds it to the cache if found.
+            cacheMissCount.increment();
+            long now = System.currentTimeMillis();
+            if (absentUsernames.isKnownAbsent(username, now)) {
+                negativeHitCount.increment();
+                missTimer.recordSince(startedAt);
+                commitLookup(event, username, false, true, false);
+                return null;
             }
-            return userFromDB;
+            // Concurrent misses for the same username share the load started by the first of them
+            User user = userLoads.load(username, this::loadUserFromDatabase);
+            missTimer.recordSince(startedAt);
+            commitLookup(event, username, false, false, user != null);
+            return user;
+        }
+        cacheHitCount.increment();
+        node.recordHit(); // kept on the node so the count goes away with it on eviction
+        // Lock-free touch: eviction reads these instead of the hit reordering the LRU list
+        if (!node.isReferenced()) {
+            node.setReferenced(true);
         }
-        logger.info("Cache HIT for username: {}", username);
-        cacheHitCount++;
-        cacheHits.merge(username, 1, Integer::sum);
-        lastAccessTime.put(username, System.currentTimeMillis());
+        node.setLastAccessed(System.currentTimeMillis());
+        hitTimer.recordSince(startedAt);
+        commitLookup(event, username, true, false, true);
         return node.getUser();
     }
 
-    // Search for a TreeNode by username
-    private TreeNode searchNodeForUsername(TreeNode root, String username) {
-        if (root == null) {
-            return null;
+    private static void commitLookup(CacheLookupEvent event, String username, boolean hit, boolean knownAbsent, boolean found) {
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.hit = hit;
+            event.knownAbsent = knownAbsent;
+            event.found = found;
+            event.commit();
         }
+    }
 
-        int comparison = username.compareTo(root.getUser().getUsername());
-        if (comparison == 0) {
-            return root;
+    private User loadUserFromDatabase(String username) {
+        // A load for this key may have finished between our cache miss and winning the single-flight slot
+        TreeNode node = segmentFor(username).find(username);
+        if (node != null) {
+            return node.getUser();
+        }
+        long now = System.currentTimeMillis();
+        long generation = absentUsernames.generation(username);
+        User userFromDB = userRepository.findByUsername(username).orElse(null);
+        if (userFromDB != null) {
+            addUserToCache(userFromDB);//Fetches the user from the database and adds it to the cache if found.
+            usernameIndex.add(username);
+        } else {
+            absentUsernames.markAbsent(username, generation, now);
         }
-        return comparison < 0 ? searchNodeForUsername(root.getLeft(), username)
-                              : searchNodeForUsername(root.getRight(), username);
+        return userFromDB;
     }
 
     public Map<String, Object> getCacheStats() {
               Map<String, Object> stats = new HashMap<>();
-                stats.put("size", size);
+              long requests = totalRequests.sum();
+              long hits = cacheHitCount.sum();
+                stats.put("size", size());
                 stats.put("maxSize", MAX_CACHE_SIZE);
-        stats.put("totalRequests", totalRequests);
-               stats.put("cacheHits", cacheHitCount);
-                stats.put("cacheMisses", cacheMissCount);
-             stats.put("hitRate", totalRequests > 0 ? (double) cacheHitCount / totalRequests : 0);
+        stats.put("totalRequests", requests);
+               stats.put("cacheHits", hits);
+                stats.put("cacheMisses", cacheMissCount.sum());
+                stats.put("evictions", evictionCount.sum());
+                stats.put("negativeHits", negativeHitCount.sum());
+                stats.put("negativeCacheSize", absentUsernames.size());
+                stats.put("originatingLoads", userLoads.getOriginatingLoads());
+                stats.put("coalescedLoads", userLoads.getCoalescedLoads());
+             stats.put("hitRate", requests > 0 ? (double) hits / requests : 0);
             stats.put("mostAccessedUsers", getMostAccessedUsers(5));
                 return stats;
         }
+        // Scans the cached nodes, so it is bounded by the cache size; only the stats endpoint calls it
         private List<Map<String, Object>> getMostAccessedUsers(int limit) {
-                    return cacheHits.entrySet().stream()
-                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    List<TreeNode> nodes = new ArrayList<>();
+                    for (CacheSegment segment : segments) {
+                        segment.collectNodes(nodes);
+                    }
+                    return nodes.stream()
+                        .map(node -> new AbstractMap.SimpleEntry<>(node, node.getHits()))
+                        .sorted(Map.Entry.<TreeNode, Long>comparingByValue().reversed())
                         .limit(limit)
                         .map(entry -> {
                             Map<String, Object> userStats = new HashMap<>();
-                            userStats.put("username", entry.getKey());
+                            userStats.put("username", entry.getKey().getUser().getUsername());
                             userStats.put("hits", entry.getValue());
-                            userStats.put("lastAccessed", lastAccessTime.get(entry.getKey()));
+                            userStats.put("lastAccessed", entry.getKey().getLastAccessed());
                             return userStats;
                         })
                         .collect(Collectors.toList());
@@ -130,95 +209,115 @@ public class CacheService {
             
     
 
-    private void evictLeastRecentlyUsed() {
-        String lruUser = lastAccessTime.entrySet()
-                .stream()
-                .min(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-
-        if (lruUser != null) {
-            logger.info("Evicting least recently used user: {}", lruUser);
-            removeFromCache(lruUser);
-            lastAccessTime.remove(lruUser);
-            size--;
+    private int size() {
+        int size = 0;
+        for (CacheSegment segment : segments) {
+            size += segment.size();
         }
+        return size;
     }
 
     // Remove a user from the cache
     private void removeFromCache(String username) {
-        root = removeRec(root, username);
+        segmentFor(username).remove(username);
     }
 
-    // Recursive deletion of a user from the BST
-    private TreeNode removeRec(TreeNode root, String username) {
-        if (root == null) {
-            return null;
+    // The limit most hit cached usernames starting with prefix, most hits first, ties in username order.
+    // Range scan of every segment's tree into one bounded heap: the scan covers all cached matches (at
+    // most the cache size), and each match costs a heap offer, not a second lookup.
+    public List<String> findMostHitUsernamesByPrefix(String prefix, int limit) {
+        Comparator<Map.Entry<String, Long>> mostHitFirst = Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(limit + 1, mostHitFirst.reversed());
+        for (CacheSegment segment : segments) {
+            segment.collectPrefixHits(prefix, limit, top);
         }
-
-        int comparison = username.compareTo(root.getUser().getUsername());
-        if (comparison < 0) {
-            root.setLeft(removeRec(root.getLeft(), username));
-        } else if (comparison > 0) {
-            root.setRight(removeRec(root.getRight(), username));
-        } else {
-            if (root.getLeft() == null) return root.getRight();
-            if (root.getRight() == null) return root.getLeft();
-
-            TreeNode successor = findMin(root.getRight());
-            root.setUser(successor.getUser());
-            root.setRight(removeRec(root.getRight(), successor.getUser().getUsername()));
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(top);
+        ranked.sort(mostHitFirst);
+        List<String> usernames = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Long> entry : ranked) {
+            usernames.add(entry.getKey());
         }
-        return root;
+        return usernames;
     }
 
-    // Find the node with the smallest value in the BST
-    private TreeNode findMin(TreeNode root) {
-        while (root.getLeft() != null) {
-            root = root.getLeft();
-        }
-        return root;
+    // How often the username has been served from the cache since it was last cached; used as its
+    // popularity. Users that are not cached (never read, or evicted as cold) count as 0.
+    public long getHitCount(String username) {
+        TreeNode node = segmentFor(username).find(username);
+        return node != null ? node.getHits() : 0;
     }
 
-    // Scheduled task to refresh cache every 5 minutes
+    // Scheduled task to refresh cache every 15 seconds.
+    // Only rows whose updated_at moved past the watermark are pulled and upserted; the window overlaps
+    // the previous one a little so rows committed late with an older timestamp are not missed.
     @Scheduled(fixedRate = 15000)
     public void refreshCache() {
-        // logger.info("Refreshing cache...");
-        logger.info("Cache refresh started at {}", new Date());
-    // Your refresh logic
-    logger.info("Cache refresh completed at {}", new Date());
-        List<User> dbUsers = userRepository.findAll();
-        Set<String> dbUsernames = dbUsers.stream()
-                .map(User::getUsername)
-                .collect(Collectors.toSet());
+        long startedAt = System.nanoTime();
+        CacheRefreshEvent event = new CacheRefreshEvent();
+        event.begin();
+        LocalDateTime since = refreshWatermark;
+        if (since == null) {
+            // Nothing cached yet that could be stale; start tracking changes from now
+            refreshWatermark = LocalDateTime.now().minusSeconds(REFRESH_OVERLAP_SECONDS);
+            logger.info("Cache refresh watermark initialised to {}", refreshWatermark);
+            return;
+        }
+
+        List<User> changedUsers = userRepository.findByUpdatedAtAfterOrderByUpdatedAtAsc(since);
+        long now = System.currentTimeMillis();
+        for (User user : changedUsers) {
+            // A changed row may be a user created elsewhere (another instance) that was cached as absent
+            absentUsernames.invalidate(user.getUsername());
+            segmentFor(user.getUsername()).refresh(user, now);
+            usernameIndex.add(user.getUsername());
+        }
+        if (!changedUsers.isEmpty()) {
+            LocalDateTime newest = changedUsers.get(changedUsers.size() - 1).getUpdatedAt();
+            refreshWatermark = newest.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        }
 
-        getAllUsersFromCache().stream()
+        boolean reconcile = ++refreshesSinceReconcile >= RECONCILE_EVERY_REFRESHES;
+        if (reconcile) {
+            refreshesSinceReconcile = 0;
+            removeDeletedUsers();
+        }
+        refreshTimer.recordSince(startedAt);
+        if (event.shouldCommit()) {
+            event.rowsLoaded = changedUsers.size();
+            event.reconciled = reconcile;
+            event.commit();
+        }
+        logger.debug("Cache refresh completed: {} changed users", changedUsers.size());
+    }
+
+    // Deleted rows leave no updated_at trace, so every few refreshes check which cached usernames still
+    // exist. This is bounded by the cache size, not by the size of the users table.
+    private void removeDeletedUsers() {
+        List<String> cachedUsernames = getAllUsersFromCache().stream()
                 .map(User::getUsername)
-                .filter(username -> !dbUsernames.contains(username))
-                .forEach(username -> {
+                .collect(Collectors.toList());
+
+        for (int from = 0; from < cachedUsernames.size(); from += RECONCILE_BATCH_SIZE) {
+            List<String> batch = cachedUsernames.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, cachedUsernames.size()));
+            Set<String> existing = new HashSet<>(userRepository.findExistingUsernames(batch));
+            for (String username : batch) {
+                if (!existing.contains(username)) {
                     removeFromCache(username);
-                    lastAccessTime.remove(username);
-                    size--;
+                    usernameIndex.remove(username);
                     logger.info("Removed user from cache: {}", username);
-                });
-
-        dbUsers.forEach(this::addUserToCache);
-        logger.info("Cache refresh completed.");
+                }
+            }
+        }
     }
 
-    // Fetch all users from cache
+    // Fetch all users from cache, in username order
     public List<User> getAllUsersFromCache() {
         List<User> users = new ArrayList<>();
-        traverseTree(root, users);
-        return users;
-    }
-
-    private void traverseTree(TreeNode node, List<User> users) {
-        if (node != null) {
-            traverseTree(node.getLeft(), users);
-            users.add(node.getUser());
-            traverseTree(node.getRight(), users);
+        for (CacheSegment segment : segments) {
+            segment.collect(users);
         }
+        users.sort(Comparator.comparing(User::getUsername)); // merges the already-sorted segment runs
+        return users;
     }
 }
- 
\ No newline at end of file
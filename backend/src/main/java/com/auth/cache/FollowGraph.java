@@ -0,0 +1,264 @@
+package com.auth.cache;
+
+import com.auth.model.Follow;
+import com.auth.repository.FollowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The whole follow graph in memory, keyed by User.id, as sorted primitive long[] adjacency arrays in
+// both directions. An edge costs 16 bytes (8 per direction) instead of a Follow entity plus boxed Longs,
+// "does a follow b" is a binary search and mutual/common-follow queries are sorted-array intersections.
+// Adjacency sets are immutable and swapped per user with ConcurrentHashMap.compute, so readers never
+// lock. Edits go to small sorted delta arrays that are folded back into the base array once they grow
+// past an eighth of it, so a follow of a user with a million followers does not copy 8MB every time.
+@Component
+public class FollowGraph {
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraph.class);
+    private static final int LOAD_PAGE_SIZE = 10000;
+    private static final int MIN_DELTA = 16; // deltas this small are never worth compacting
+    private static final int GALLOP_RATIO = 32; // size ratio above which intersection binary-searches
+    private static final long[] NO_IDS = new long[0];
+
+    // Immutable sorted id set: base, minus removed (a subset of base), plus added (disjoint from base)
+    static final class Adjacency {
+        final long[] base;
+        final long[] added;
+        final long[] removed;
+
+        Adjacency(long[] base, long[] added, long[] removed) {
+            this.base = base;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        boolean contains(long id) {
+            if (Arrays.binarySearch(added, id) >= 0) {
+                return true;
+            }
+            return Arrays.binarySearch(base, id) >= 0 && Arrays.binarySearch(removed, id) < 0;
+        }
+
+        int size() {
+            return base.length - removed.length + added.length;
+        }
+
+        Adjacency with(long id) {
+            if (contains(id)) {
+                return this;
+            }
+            if (Arrays.binarySearch(removed, id) >= 0) {
+                return new Adjacency(base, added, without(removed, id));
+            }
+            return new Adjacency(base, with(added, id), removed).compactIfLarge();
+        }
+
+        // Returns null when the set becomes empty, so compute() drops the key
+        Adjacency without(long id) {
+            if (!contains(id)) {
+                return this;
+            }
+            Adjacency result = Arrays.binarySearch(added, id) >= 0
+                    ? new Adjacency(base, without(added, id), removed)
+                    : new Adjacency(base, added, with(removed, id)).compactIfLarge();
+            return result.size() == 0 ? null : result;
+        }
+
+        private Adjacency compactIfLarge() {
+            if (added.length + removed.length <= Math.max(MIN_DELTA, base.length >>> 3)) {
+                return this;
+            }
+            return new Adjacency(toArray(), NO_IDS, NO_IDS);
+        }
+
+        // The set as one sorted array; free when there is no pending delta
+        long[] toArray() {
+            if (added.length == 0 && removed.length == 0) {
+                return base;
+            }
+            long[] ids = new long[size()];
+            int b = 0, a = 0, r = 0, n = 0;
+            while (b < base.length || a < added.length) {
+                if (b < base.length && (a == added.length || base[b] < added[a])) {
+                    if (r < removed.length && removed[r] == base[b]) {
+                        r++;
+                    } else {
+                        ids[n++] = base[b];
+                    }
+                    b++;
+                } else {
+                    ids[n++] = added[a++];
+                }
+            }
+            return ids;
+        }
+
+        private static long[] with(long[] sorted, long id) {
+            int at = -Arrays.binarySearch(sorted, id) - 1;
+            long[] result = new long[sorted.length + 1];
+            System.arraycopy(sorted, 0, result, 0, at);
+            result[at] = id;
+            System.arraycopy(sorted, at, result, at + 1, sorted.length - at);
+            return result;
+        }
+
+        private static long[] without(long[] sorted, long id) {
+            int at = Arrays.binarySearch(sorted, id);
+            long[] result = new long[sorted.length - 1];
+            System.arraycopy(sorted, 0, result, 0, at);
+            System.arraycopy(sorted, at + 1, result, at, sorted.length - at - 1);
+            return result;
+        }
+    }
+
+    private final Map<Long, Adjacency> following = new ConcurrentHashMap<>(); // user -> who they follow
+    private final Map<Long, Adjacency> followers = new ConcurrentHashMap<>(); // user -> who follows them
+    private volatile boolean loaded;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    // Keyset-paged by Follow.id so startup never materialises the whole follows table at once
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long after = 0;
+        long edges = 0;
+        List<Follow> page;
+        do {
+            page = followRepository.findPageAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (Follow follow : page) {
+                addEdge(follow.getFollowerId(), follow.getFolloweeId());
+            }
+            edges += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        loaded = true;
+        logger.info("Follow graph loaded with {} edges over {} users", edges, following.size());
+    }
+
+    // Until the startup load finishes callers should ask the database instead
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void addEdge(long followerId, long followeeId) {
+        following.compute(followerId, (id, set) -> set == null ? single(followeeId) : set.with(followeeId));
+        followers.compute(followeeId, (id, set) -> set == null ? single(followerId) : set.with(followerId));
+    }
+
+    public void removeEdge(long followerId, long followeeId) {
+        following.computeIfPresent(followerId, (id, set) -> set.without(followeeId));
+        followers.computeIfPresent(followeeId, (id, set) -> set.without(followerId));
+    }
+
+    private static Adjacency single(long id) {
+        return new Adjacency(new long[]{id}, NO_IDS, NO_IDS);
+    }
+
+    public boolean follows(long followerId, long followeeId) {
+        Adjacency set = following.get(followerId);
+        return set != null && set.contains(followeeId);
+    }
+
+    public int followerCount(long userId) {
+        Adjacency set = followers.get(userId);
+        return set == null ? 0 : set.size();
+    }
+
+    public int followingCount(long userId) {
+        Adjacency set = following.get(userId);
+        return set == null ? 0 : set.size();
+    }
+
+    // Sorted ids; the returned arrays may be shared and must not be modified
+    public long[] followersOf(long userId) {
+        return ids(followers.get(userId));
+    }
+
+    public long[] followeesOf(long userId) {
+        return ids(following.get(userId));
+    }
+
+    // Users who follow userId back
+    public long[] mutuals(long userId, int max) {
+        return intersect(followeesOf(userId), followersOf(userId), max);
+    }
+
+    // Users followed by both a and b
+    public long[] commonFollowees(long a, long b, int max) {
+        return intersect(followeesOf(a), followeesOf(b), max);
+    }
+
+    private static long[] ids(Adjacency set) {
+        return set == null ? NO_IDS : set.toArray();
+    }
+
+    // Up to max ids present in both sorted arrays. A linear merge is O(n + m); when one side is much
+    // smaller (a normal user against a celebrity's follower list) each of its ids is binary-searched in
+    // the larger side instead, O(n log m), continuing from the previous match.
+    public static long[] intersect(long[] a, long[] b, int max) {
+        if (a.length > b.length) {
+            long[] swap = a;
+            a = b;
+            b = swap;
+        }
+        long[] common = new long[Math.min(a.length, max)];
+        int n = 0;
+        if (a.length > 0 && b.length / a.length > GALLOP_RATIO) {
+            int from = 0;
+            for (int i = 0; i < a.length && n < common.length && from < b.length; i++) {
+                int at = Arrays.binarySearch(b, from, b.length, a[i]);
+                if (at >= 0) {
+                    common[n++] = a[i];
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+        } else {
+            for (int i = 0, j = 0; i < a.length && j < b.length && n < common.length; ) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    common[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == common.length ? common : Arrays.copyOf(common, n);
+    }
+
+    public Map<String, Object> getStats() {
+        long edges = 0;
+        long idSlots = 0;
+        for (Adjacency set : following.values()) {
+            edges += set.size();
+            idSlots += set.base.length + set.added.length + set.removed.length;
+        }
+        for (Adjacency set : followers.values()) {
+            idSlots += set.base.length + set.added.length + set.removed.length;
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("edges", edges);
+        stats.put("usersFollowing", following.size());
+        stats.put("usersFollowed", followers.size());
+        stats.put("adjacencyBytes", idSlots * Long.BYTES);
+        return stats;
+    }
+}
@@ -0,0 +1,80 @@
+package com.auth.cache;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded, TTL'd set of usernames the database recently reported as absent.
+// Every entry gets the same TTL, so insertion order is also expiry order and a FIFO queue
+// is enough to keep the set within maxEntries.
+public class NegativeCache {
+    private static final int GENERATION_STRIPES = 256; // Power of two
+    private final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<String, Long>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Bumped by an invalidation of any username in the stripe; a lookup that raced with one must not
+    // record its (stale) miss. Striped so an invalidation only disturbs lookups of about 1/256 of names.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public NegativeCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isKnownAbsent(String username, long now) {
+        Long expiry = expiresAt.get(username);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry <= now) {
+            expiresAt.remove(username, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    // Call before querying the database, and pass the result to markAbsent
+    public long generation(String username) {
+        return generations.get(stripe(username));
+    }
+
+    public void markAbsent(String username, long lookupGeneration, long now) {
+        if (generations.get(stripe(username)) != lookupGeneration) {
+            return;
+        }
+        long expiry = now + ttlMillis;
+        expiresAt.put(username, expiry);
+        insertionOrder.add(new AbstractMap.SimpleImmutableEntry<>(username, expiry));
+
+        // Drop expired entries from the head, then the oldest live ones while over the bound.
+        // Removal is conditional on the expiry so a newer entry for the same name survives.
+        Map.Entry<String, Long> oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (oldest.getValue() <= now || expiresAt.size() > maxEntries)) {
+            Map.Entry<String, Long> polled = insertionOrder.poll();
+            if (polled != null) {
+                expiresAt.remove(polled.getKey(), polled.getValue());
+            }
+        }
+    }
+
+    // Call when the username comes into existence
+    public void invalidate(String username) {
+        generations.incrementAndGet(stripe(username));
+        expiresAt.remove(username);
+    }
+
+    private static int stripe(String username) {
+        int h = username.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    public int size() {
+        return expiresAt.size();
+    }
+}
@@ -0,0 +1,168 @@
+package com.auth.cache;
+
+import java.util.Arrays;
+
+// Sorted tweet ids for one search term, stored as varints in a single byte[].
+// Ids are grouped into blocks of BLOCK_SIZE; the first id and byte offset of every block are kept in a
+// skip table, so membership is a binary search over blocks plus one block decode, and the list can be
+// walked newest first block by block.
+// Tweet ids are Snowflake ids (TweetIdGenerator: millis << 22 | node << 12 | sequence), so a plain id
+// gap is milliseconds << 22 and would cost 5-7 bytes. Each posting is instead two varints: the gap in
+// milliseconds since the previous id, then the low 22 bits reordered as sequence << 10 | node. The
+// sequence is almost always 0, so with node ids below 128 that second varint is one byte. A posting
+// costs 2 bytes for terms used every few milliseconds, 3 for every few seconds, 4-5 for rare terms.
+class PostingList {
+    static final int BLOCK_SIZE = 128;
+    private static final int LOW_BITS = 22; // node id and sequence
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = LOW_BITS - SEQUENCE_BITS;
+
+    private byte[] data = new byte[16];
+    private int length = 0; // bytes used in data
+    private long[] blockFirstIds = new long[1];
+    private int[] blockOffsets = new int[1];
+    private int blocks = 0;
+    private int count = 0;
+    private long lastId = Long.MIN_VALUE;
+    private int position; // read cursor of readVarint; only used while holding the lock
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized int bytes() {
+        return length + blocks * (Long.BYTES + Integer.BYTES);
+    }
+
+    synchronized void add(long id) {
+        if (id > lastId) {
+            append(id);
+            return;
+        }
+        // Out of order: a concurrent insert committed a higher id first, or a rebuild page overlaps
+        // live writes. The id nearly always lands in the last block, so only the tail is re-encoded.
+        int block = blockFor(id);
+        long[] tail = decodeFrom(block);
+        int at = Arrays.binarySearch(tail, id);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        length = blockOffsets[block];
+        blocks = block;
+        count = block * BLOCK_SIZE;
+        lastId = Long.MIN_VALUE;
+        for (int i = 0; i < tail.length; i++) {
+            if (i == at) {
+                append(id);
+            }
+            append(tail[i]);
+        }
+        if (at == tail.length) {
+            append(id);
+        }
+    }
+
+    synchronized boolean contains(long id) {
+        if (count == 0 || id < blockFirstIds[0] || id > lastId) {
+            return false;
+        }
+        // Walk the one block that could hold id, stopping at the first id that reaches it
+        int block = blockFor(id);
+        int end = block + 1 < blocks ? blockOffsets[block + 1] : length;
+        position = blockOffsets[block];
+        long current = blockFirstIds[block];
+        while (current < id && position < end) {
+            current = readNext(current);
+        }
+        return current == id;
+    }
+
+    // Decodes block into ids (ascending) and returns how many it holds
+    synchronized int decodeBlock(int block, long[] ids) {
+        if (block >= blocks) {
+            return 0;
+        }
+        int end = block + 1 < blocks ? blockOffsets[block + 1] : length;
+        position = blockOffsets[block];
+        long id = blockFirstIds[block];
+        int n = 0;
+        ids[n++] = id;
+        while (position < end) {
+            id = readNext(id);
+            ids[n++] = id;
+        }
+        return n;
+    }
+
+    // Index of the last block whose first id is <= id (0 if id precedes them all)
+    synchronized int blockFor(long id) {
+        int at = Arrays.binarySearch(blockFirstIds, 0, blocks, id);
+        return at >= 0 ? at : Math.max(0, -at - 2);
+    }
+
+    private void append(long id) {
+        if (count % BLOCK_SIZE == 0) {
+            if (blocks == blockFirstIds.length) {
+                blockFirstIds = Arrays.copyOf(blockFirstIds, blocks * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+            }
+            // A block's first id lives in the skip table, so the block's bytes start with the second id's gap
+            blockFirstIds[blocks] = id;
+            blockOffsets[blocks] = length;
+            blocks++;
+        } else {
+            if (length + 20 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 20));
+            }
+            // Ids ascend, so the millisecond part never goes backwards
+            writeVarint((id >>> LOW_BITS) - (lastId >>> LOW_BITS));
+            long sequence = id & ((1L << SEQUENCE_BITS) - 1);
+            long node = (id >>> SEQUENCE_BITS) & ((1L << NODE_BITS) - 1);
+            writeVarint(sequence << NODE_BITS | node);
+        }
+        lastId = id;
+        count++;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // The id following previous, decoded from the posting at position
+    private long readNext(long previous) {
+        long millis = (previous >>> LOW_BITS) + readVarint();
+        long low = readVarint();
+        long node = low & ((1L << NODE_BITS) - 1);
+        long sequence = low >>> NODE_BITS;
+        return millis << LOW_BITS | node << SEQUENCE_BITS | sequence;
+    }
+
+    private long[] decodeFrom(int block) {
+        long[] ids = new long[count - block * BLOCK_SIZE];
+        long[] buffer = new long[BLOCK_SIZE];
+        int n = 0;
+        for (int b = block; b < blocks; b++) {
+            int decoded = decodeBlock(b, buffer);
+            System.arraycopy(buffer, 0, ids, n, decoded);
+            n += decoded;
+        }
+        return ids;
+    }
+}
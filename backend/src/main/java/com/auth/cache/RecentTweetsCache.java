@@ -0,0 +1,123 @@
+package com.auth.cache;
+
+import com.auth.model.Tweet;
+import com.auth.model.User;
+import com.auth.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Each active user's most recent tweets, kept in a fixed-size ring buffer so profile views are served
+// from memory. Rings are filled from the database on first read and kept current write-through by
+// TweetService.createTweet. Memory is bounded to MAX_USERS * RING_CAPACITY tweets: when a new user
+// pushes the count over MAX_USERS, cold users are evicted in CLOCK order (users read since they were
+// last considered get a second pass).
+@Component
+public class RecentTweetsCache {
+    private static final Logger logger = LoggerFactory.getLogger(RecentTweetsCache.class);
+    public static final int RING_CAPACITY = 50; // Tweets kept per user
+    private static final int MAX_USERS = 2000; // Memory budget: at most 100,000 cached tweets
+
+    private final Map<String, TweetRing> rings = new ConcurrentHashMap<>();
+    private final Queue<String> clock = new ConcurrentLinkedQueue<>(); // usernames in admission order
+    private final SingleFlight<String, TweetRing> ringLoads = new SingleFlight<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    // The user's most recent tweets, newest first; loads them from the database on a miss
+    public TweetRing.Snapshot getRecentTweets(User user) {
+        return ring(user).snapshot();
+    }
+
+    // One page of the user's cached tweets with ids below beforeId (null: from the newest)
+    public TweetRing.Snapshot getRecentTweets(User user, Long beforeId, int max) {
+        return ring(user).snapshot(beforeId, max);
+    }
+
+    private TweetRing ring(User user) {
+        TweetRing ring = rings.get(user.getUsername());
+        if (ring != null && ring.isLoaded()) {
+            hits.increment();
+        } else {
+            // A ring that is published but not yet loaded would read as empty: join its load instead
+            misses.increment();
+            ring = ringLoads.load(user.getUsername(), username -> load(user));
+        }
+        ring.markReferenced();
+        return ring;
+    }
+
+    // Write-through from TweetService.createTweet; users without a ring are cold and stay uncached
+    public void onTweetCreated(Tweet tweet) {
+        TweetRing ring = rings.get(tweet.getUser().getUsername());
+        if (ring != null) {
+            ring.push(tweet);
+        }
+    }
+
+    private TweetRing load(User user) {
+        // Publish the (empty) ring before querying so tweets created during the load are pushed into it
+        TweetRing ring = new TweetRing(RING_CAPACITY);
+        TweetRing existing = rings.putIfAbsent(user.getUsername(), ring);
+        if (existing != null) {
+            return existing;
+        }
+        clock.add(user.getUsername());
+        List<Tweet> latest;
+        try {
+            latest = tweetRepository.findLatestByUser(user.getId(), PageRequest.of(0, RING_CAPACITY));
+        } catch (RuntimeException e) {
+            rings.remove(user.getUsername(), ring);
+            throw e;
+        }
+        ring.fill(latest, latest.size() < RING_CAPACITY);
+        evictColdUsers();
+        return ring;
+    }
+
+    private void evictColdUsers() {
+        int budget = 2 * rings.size(); // every ring is passed over at most twice
+        while (rings.size() > MAX_USERS && budget-- > 0) {
+            String username = clock.poll();
+            if (username == null) {
+                return;
+            }
+            TweetRing ring = rings.get(username);
+            if (ring == null) {
+                continue;
+            }
+            if (ring.clearReferenced()) {
+                clock.add(username);
+            } else {
+                rings.remove(username, ring);
+                evictions.increment();
+                logger.debug("Evicted recent tweets of cold user {}", username);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", rings.size());
+        stats.put("maxUsers", MAX_USERS);
+        stats.put("ringCapacity", RING_CAPACITY);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,113 @@
+package com.auth.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Space-Saving heavy-hitters summary: tracks at most capacity items however many distinct ones are
+// offered. When a new item arrives and the summary is full it takes over the slot of the current
+// minimum, inheriting its count (recorded as error). Any item whose true count exceeds
+// total / capacity is guaranteed to be tracked, and a tracked count overestimates by at most its error.
+// Counters sit in an indexed min-heap, so finding the minimum is O(1) and an increment is O(log capacity).
+// Not thread-safe; each TrendingHashtags bucket guards its own.
+class SpaceSaving {
+    static final class Counter {
+        final String item;
+        long count;
+        long error;
+        int heapIndex;
+
+        Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Counter[] heap;
+    private final Map<String, Counter> counters;
+    private int size = 0;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.heap = new Counter[capacity];
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void offer(String item) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.heapIndex);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(item, 1, 0);
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            counters.put(item, counter);
+            siftUp(counter.heapIndex);
+            return;
+        }
+        // Replace the minimum; the newcomer may have occurred up to min times while untracked
+        Counter min = heap[0];
+        counters.remove(min.item);
+        counter = new Counter(item, min.count + 1, min.count);
+        counter.heapIndex = 0;
+        heap[0] = counter;
+        counters.put(item, counter);
+        siftDown(0);
+    }
+
+    // Adds each tracked item's count into totals
+    void addCountsTo(Map<String, Long> totals) {
+        for (int i = 0; i < size; i++) {
+            totals.merge(heap[i].item, heap[i].count, Long::sum);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        counters.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.heapIndex = index;
+    }
+}
@@ -0,0 +1,155 @@
+package com.auth.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hierarchical timing wheel: expiry without scanning every entry.
+// Level 0 has SLOTS slots of tickMillis each, level 1 SLOTS slots of SLOTS ticks each, and so on, so
+// four levels of 64 one-second slots cover about 194 days. A timer goes into the lowest level whose
+// span covers its remaining time. Each tick expires one level-0 slot, and whenever a level's index wraps
+// the next slot of the level above is cascaded: its timers are re-placed, now closer to their deadline.
+// Scheduling and cancelling are O(1) (timers are intrusive doubly linked lists); advancing costs O(1)
+// per tick plus O(1) per timer cascaded or expired. Timers expire up to one tick late.
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+
+    public static final class Timer<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level = -1; // -1 once expired or cancelled
+        private int slot;
+
+        Timer(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timer<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int levels, long now) {
+        this.tickMillis = tickMillis;
+        this.slots = new Timer[levels][SLOTS];
+        this.currentTick = now / tickMillis;
+    }
+
+    public synchronized Timer<T> schedule(T item, long deadlineMillis) {
+        // Anything already due fires on the next tick
+        Timer<T> timer = new Timer<>(item, Math.max(deadlineMillis / tickMillis, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public synchronized void cancel(Timer<T> timer) {
+        if (timer.level >= 0) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    // Moves the wheel up to now and returns the items whose deadline has passed
+    public synchronized List<T> advance(long now) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = now / tickMillis;
+        while (currentTick < targetTick) {
+            long tick = ++currentTick;
+            for (int level = 1; level < slots.length && (tick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                cascade(level, (int) ((tick >>> (SLOT_BITS * level)) & MASK), expired);
+            }
+            Timer<T> timer = slots[0][(int) (tick & MASK)];
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                unlink(timer);
+                size--;
+                expired.add(timer.item);
+                timer = next;
+            }
+        }
+        return expired;
+    }
+
+    // Removes and returns one of the items closest to expiry (exact to the slot), or null when empty.
+    // Used to make room when a bounded owner is full.
+    public synchronized T pollEarliest() {
+        for (int level = 0; level < slots.length; level++) {
+            long levelTick = currentTick >>> (SLOT_BITS * level);
+            for (int i = 1; i <= SLOTS; i++) {
+                Timer<T> timer = slots[level][(int) ((levelTick + i) & MASK)];
+                if (timer != null) {
+                    unlink(timer);
+                    size--;
+                    return timer.item;
+                }
+            }
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot, List<T> expired) {
+        Timer<T> timer = slots[level][slot];
+        slots[level][slot] = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            if (timer.deadlineTick <= currentTick) {
+                timer.level = -1;
+                size--;
+                expired.add(timer.item);
+            } else {
+                place(timer);
+            }
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        int level = 0;
+        while (level < slots.length - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        // Deadlines beyond the top level's span alias into an earlier slot and are simply re-placed
+        // when that slot cascades
+        int slot = (int) ((timer.deadlineTick >>> (SLOT_BITS * level)) & MASK);
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[level][slot] = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+}
@@ -1,13 +1,21 @@
-
 package com.auth.cache;
 
 import com.auth.model.User;
 
-// Represents a node in the binary search tree for caching
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents a node in the red-black tree used for caching
 public class TreeNode {
-    private User user; // User data
-    private TreeNode left; // Left child in the BST
-    private TreeNode right; // Right child in the BST
+    private volatile User user; // User data, volatile so upserts are visible to lock-free readers
+    private TreeNode left; // Left child in the tree
+    private TreeNode right; // Right child in the tree
+    private TreeNode parent; // Parent link, lets UserTree rebalance without recursion
+    private boolean red = true; // New nodes start red, as in any red-black insert
+    private TreeNode newer; // Neighbour towards the most recently used end of the access list
+    private TreeNode older; // Neighbour towards the least recently used end of the access list
+    private volatile long lastAccessed; // Time of the last cache hit or insert, in millis
+    private volatile boolean referenced; // Set by lock-free cache hits, consumed by eviction (second chance)
+    private final LongAdder hits = new LongAdder(); // Cache hits served from this node; dropped with it on eviction
 
     // Constructor to initialize a TreeNode with a User
     public TreeNode(User user) {
@@ -16,7 +24,7 @@ public class TreeNode {
         this.right = null;
     }
 
-    // Getters and setters for user, left, and right
+    // Getters and setters for user, tree links, color and access-order links
     public User getUser() {
         return user;
     }
@@ -40,4 +48,60 @@ public class TreeNode {
     public void setRight(TreeNode right) {
         this.right = right;
     }
+
+    public TreeNode getParent() {
+        return parent;
+    }
+
+    public void setParent(TreeNode parent) {
+        this.parent = parent;
+    }
+
+    public boolean isRed() {
+        return red;
+    }
+
+    public void setRed(boolean red) {
+        this.red = red;
+    }
+
+    public TreeNode getNewer() {
+        return newer;
+    }
+
+    public void setNewer(TreeNode newer) {
+        this.newer = newer;
+    }
+
+    public TreeNode getOlder() {
+        return older;
+    }
+
+    public void setOlder(TreeNode older) {
+        this.older = older;
+    }
+
+    public long getLastAccessed() {
+        return lastAccessed;
+    }
+
+    public void setLastAccessed(long lastAccessed) {
+        this.lastAccessed = lastAccessed;
+    }
+
+    public boolean isReferenced() {
+        return referenced;
+    }
+
+    public void setReferenced(boolean referenced) {
+        this.referenced = referenced;
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
 }
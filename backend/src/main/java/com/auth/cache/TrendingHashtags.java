@@ -0,0 +1,173 @@
+package com.auth.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Trending hashtags over sliding 5 minute, 1 hour and 24 hour windows in constant memory.
+// Each window is a ring of time buckets (1 min x 5, 5 min x 12, 1 h x 24), each bucket a Space-Saving
+// summary of at most COUNTERS_PER_BUCKET hashtags, so memory is fixed no matter how many tweets or
+// distinct tags arrive. A window's trends are the summed counts of its buckets (the current, partial
+// bucket included), recomputed at most once per RESULT_TTL_MILLIS rather than on every request.
+// Each bucket has its own lock: a tweet only holds the current bucket's lock for a few heap operations,
+// and a trends request copies one bucket at a time, then sums and ranks without holding any of them.
+@Component
+public class TrendingHashtags {
+    private static final Pattern HASHTAG = Pattern.compile("#([\\p{L}\\p{N}_]{1,50})");
+    private static final int COUNTERS_PER_BUCKET = 200;
+    private static final long RESULT_TTL_MILLIS = 10000;
+
+    public enum Window {
+        FIVE_MINUTES("5m", 60 * 1000L, 5),
+        ONE_HOUR("1h", 5 * 60 * 1000L, 12),
+        ONE_DAY("24h", 60 * 60 * 1000L, 24);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equals(label)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Window must be one of 5m, 1h, 24h");
+        }
+    }
+
+    // One time bucket, guarded by its own monitor
+    private static final class Bucket {
+        private final SpaceSaving summary = new SpaceSaving(COUNTERS_PER_BUCKET);
+        private long epoch = -1; // which bucketMillis interval the bucket currently holds
+
+        synchronized void offer(String hashtag, long currentEpoch) {
+            if (epoch != currentEpoch) {
+                summary.clear();
+                epoch = currentEpoch;
+            }
+            summary.offer(hashtag);
+        }
+
+        synchronized void addCountsTo(Map<String, Long> totals, long oldestEpoch, long currentEpoch) {
+            if (epoch >= oldestEpoch && epoch <= currentEpoch) {
+                summary.addCountsTo(totals);
+            }
+        }
+    }
+
+    // One window: buckets + 1 slots so the oldest full bucket is still there while the newest fills
+    private static final class BucketRing {
+        final Window window;
+        final Bucket[] buckets;
+
+        BucketRing(Window window) {
+            this.window = window;
+            this.buckets = new Bucket[window.buckets + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        void offer(String hashtag, long now) {
+            long epoch = now / window.bucketMillis;
+            buckets[(int) (epoch % buckets.length)].offer(hashtag, epoch);
+        }
+
+        Map<String, Long> totals(long now) {
+            long current = now / window.bucketMillis;
+            Map<String, Long> totals = new HashMap<>();
+            for (Bucket bucket : buckets) {
+                bucket.addCountsTo(totals, current - buckets.length + 1, current);
+            }
+            return totals;
+        }
+    }
+
+    private static final class Snapshot {
+        final List<Map<String, Object>> trends;
+        final long computedAt;
+
+        Snapshot(List<Map<String, Object>> trends, long computedAt) {
+            this.trends = trends;
+            this.computedAt = computedAt;
+        }
+    }
+
+    private final Map<Window, BucketRing> rings = new EnumMap<>(Window.class); // filled once in the constructor
+    private final Map<Window, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public TrendingHashtags() {
+        for (Window window : Window.values()) {
+            rings.put(window, new BucketRing(window));
+        }
+    }
+
+    // Distinct lower-cased hashtags of a tweet, without the '#'
+    public static Set<String> hashtags(String content) {
+        Set<String> hashtags = new LinkedHashSet<>();
+        if (content == null) {
+            return hashtags;
+        }
+        Matcher matcher = HASHTAG.matcher(content);
+        while (matcher.find()) {
+            hashtags.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+        return hashtags;
+    }
+
+    // Called by TweetService.createTweet; a handful of heap operations per hashtag, under the current
+    // bucket's lock only
+    public void record(String content, long now) {
+        for (String hashtag : hashtags(content)) {
+            for (BucketRing ring : rings.values()) {
+                ring.offer(hashtag, now);
+            }
+        }
+    }
+
+    // Top hashtags in the window, most used first, as {hashtag, count} maps. Two requests that find the
+    // snapshot expired at the same moment may both rebuild it; either result is as good as the other.
+    public List<Map<String, Object>> getTrends(Window window, int limit, long now) {
+        Snapshot snapshot = snapshots.get(window);
+        if (snapshot == null || now - snapshot.computedAt >= RESULT_TTL_MILLIS) {
+            snapshot = new Snapshot(rank(rings.get(window).totals(now)), now);
+            snapshots.put(window, snapshot);
+        }
+        return new ArrayList<>(snapshot.trends.subList(0, Math.min(limit, snapshot.trends.size())));
+    }
+
+    private static List<Map<String, Object>> rank(Map<String, Long> totals) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Map<String, Object>> trends = new ArrayList<>(Math.min(entries.size(), COUNTERS_PER_BUCKET));
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(entries.size(), COUNTERS_PER_BUCKET))) {
+            Map<String, Object> trend = new LinkedHashMap<>();
+            trend.put("hashtag", "#" + entry.getKey());
+            trend.put("count", entry.getValue());
+            trends.add(trend);
+        }
+        return trends;
+    }
+}
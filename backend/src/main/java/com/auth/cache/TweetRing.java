@@ -0,0 +1,151 @@
+package com.auth.cache;
+
+import com.auth.model.Tweet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Fixed-size ring buffer of tweets kept newest first. Used for per-user recent tweets and for
+// materialised home timelines; once full, each insert overwrites the oldest tweet.
+public class TweetRing {
+    // Newest first: tweet ids are time-ordered, same order as the timeline queries
+    public static final Comparator<Tweet> NEWEST_FIRST = Comparator.comparing(Tweet::getId).reversed();
+
+    // Consistent copy of a ring. complete means there are no older tweets than these in the source.
+    public static final class Snapshot {
+        private final List<Tweet> tweets;
+        private final boolean complete;
+
+        Snapshot(List<Tweet> tweets, boolean complete) {
+            this.tweets = tweets;
+            this.complete = complete;
+        }
+
+        public List<Tweet> getTweets() {
+            return tweets;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    private final Tweet[] slots;
+    private int newest = -1; // index of the newest tweet
+    private int count = 0;
+    private volatile boolean loaded; // set once the database page has been merged in
+    private boolean overflowed; // something has been pushed out of the ring
+    private boolean complete; // the source has no tweets older than the ones held here
+    private volatile boolean referenced; // CLOCK bit for the owning cache's eviction
+
+    public TweetRing(int capacity) {
+        this.slots = new Tweet[capacity];
+    }
+
+    // False while the ring is published but its database page is still being read
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized void push(Tweet tweet) {
+        insert(tweet);
+    }
+
+    // Merges the database page into tweets already pushed while it was being loaded
+    public synchronized void fill(List<Tweet> newestFirst, boolean allTweetsOfSource) {
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            if (!contains(newestFirst.get(i).getId())) {
+                insert(newestFirst.get(i));
+            }
+        }
+        loaded = true;
+        complete = allTweetsOfSource && !overflowed;
+    }
+
+    public synchronized Snapshot snapshot() {
+        List<Tweet> tweets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tweets.add(slots[index(newest - i)]);
+        }
+        return new Snapshot(tweets, loaded && complete);
+    }
+
+    // At most max tweets with ids below beforeId, or from the newest when beforeId is null. The ring is sorted, so the start is a binary search and the copy is
+    // O(max) however full the ring is. complete is only set when the copy reached the end of a complete ring.
+    public synchronized Snapshot snapshot(Long beforeId, int max) {
+        int low = 0;
+        if (beforeId != null) {
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (slots[index(newest - mid)].getId() < beforeId) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+        }
+        int end = Math.min(count, low + max);
+        List<Tweet> tweets = new ArrayList<>(end - low);
+        for (int i = low; i < end; i++) {
+            tweets.add(slots[index(newest - i)]);
+        }
+        return new Snapshot(tweets, loaded && complete && end == count);
+    }
+
+    public void markReferenced() {
+        if (!referenced) {
+            referenced = true;
+        }
+    }
+
+    // Clears the CLOCK bit; returns whether it was set (i.e. the ring deserves a second pass)
+    public boolean clearReferenced() {
+        if (referenced) {
+            referenced = false;
+            return true;
+        }
+        return false;
+    }
+
+    private void insert(Tweet tweet) {
+        if (count == slots.length) {
+            overflowed = true;
+            complete = false;
+            // When full, the slot after the newest holds the oldest tweet, which is the one overwritten
+            Tweet oldest = slots[index(newest + 1)];
+            if (NEWEST_FIRST.compare(tweet, oldest) > 0) {
+                return;
+            }
+        } else {
+            count++;
+        }
+        newest = index(newest + 1);
+        slots[newest] = tweet;
+        // Concurrent creates can arrive slightly out of order; bubble the new tweet into place
+        for (int i = 0, at = newest; i < count - 1; i++) {
+            int older = index(at - 1);
+            if (NEWEST_FIRST.compare(slots[at], slots[older]) <= 0) {
+                break;
+            }
+            Tweet swap = slots[at];
+            slots[at] = slots[older];
+            slots[older] = swap;
+            at = older;
+        }
+    }
+
+    private boolean contains(Long id) {
+        for (int i = 0; i < count; i++) {
+            if (slots[index(newest - i)].getId().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int index(int i) {
+        return Math.floorMod(i, slots.length);
+    }
+}
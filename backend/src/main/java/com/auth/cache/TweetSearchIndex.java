@@ -0,0 +1,155 @@
+package com.auth.cache;
+
+import com.auth.model.Tweet;
+import com.auth.repository.TweetRepository;
+import com.auth.repository.TweetText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory inverted index over tweet content: term -> PostingList of tweet ids.
+// Kept current by TweetService.createTweet and rebuilt at startup by streaming (id, content) pairs in
+// keyset pages, so neither path loads whole Tweet entities. Tweet ids grow with creation time, so
+// walking a posting list from its highest id is recency order. An AND query walks the shortest list
+// newest first and probes the others, stopping as soon as the page is full.
+@Component
+public class TweetSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TweetSearchIndex.class);
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final int MAX_TERM_LENGTH = 40; // longer "words" are URLs or noise
+    private static final int MAX_CANDIDATES = 100000; // bound on ids examined by one query
+
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+    private final LongAdder indexedTweets = new LongAdder();
+    private volatile boolean loaded;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long after = 0;
+        long loadedTweets = 0;
+        List<TweetText> page;
+        do {
+            page = tweetRepository.findTextAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (TweetText tweet : page) {
+                add(tweet.getId(), tweet.getContent());
+            }
+            loadedTweets += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        loaded = true;
+        logger.info("Tweet search index loaded with {} tweets and {} terms", loadedTweets, postings.size());
+    }
+
+    public void onTweetCreated(Tweet tweet) {
+        add(tweet.getId(), tweet.getContent());
+    }
+
+    private void add(long id, String content) {
+        for (String term : terms(content)) {
+            postings.computeIfAbsent(term, t -> new PostingList()).add(id);
+        }
+        indexedTweets.increment();
+    }
+
+    // Lower-cased runs of letters, digits and underscores; "#java" and "@bob" index as "java" and "bob"
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}_]+")) {
+            if (!token.isEmpty() && token.length() <= MAX_TERM_LENGTH) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    // Ids of up to limit tweets containing every term, newest first, all below beforeId (null: no bound)
+    public List<Long> search(Set<String> terms, Long beforeId, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return ids;
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return ids;
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList shortest = lists.get(0);
+
+        long bound = beforeId == null ? Long.MAX_VALUE : beforeId;
+        long[] block = new long[PostingList.BLOCK_SIZE];
+        int examined = 0;
+        for (int b = shortest.blockFor(bound); b >= 0 && ids.size() < limit && examined < MAX_CANDIDATES; b--) {
+            int n = shortest.decodeBlock(b, block);
+            for (int i = n - 1; i >= 0 && ids.size() < limit; i--) {
+                long id = block[i];
+                // bound also drops repeats if a concurrent out-of-order insert shifted the blocks
+                if (id >= bound) {
+                    continue;
+                }
+                examined++;
+                if (containsAll(lists, id)) {
+                    ids.add(id);
+                }
+                bound = id;
+            }
+        }
+        return ids;
+    }
+
+    private static boolean containsAll(List<PostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Until the startup load finishes, searches only see tweets indexed so far
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Map<String, Object> getStats() {
+        long postingCount = 0;
+        long bytes = 0;
+        for (PostingList list : postings.values()) {
+            postingCount += list.size();
+            bytes += list.bytes();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("tweets", indexedTweets.sum());
+        stats.put("terms", postings.size());
+        stats.put("postings", postingCount);
+        stats.put("postingBytes", bytes);
+        return stats;
+    }
+}
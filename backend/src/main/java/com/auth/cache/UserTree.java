@@ -0,0 +1,364 @@
+package com.auth.cache;
+
+import com.auth.model.User;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Red-black tree of TreeNodes keyed by username.
+// Every operation is iterative, so lookups stay O(log n) and stack depth stays constant
+// even when users are inserted in sorted order (e.g. findAll() on bulk-imported accounts).
+public class UserTree {
+    private TreeNode root;
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Returns the node holding username, or null if it is not in the tree
+    public TreeNode find(String username) {
+        TreeNode node = root;
+        while (node != null) {
+            int comparison = username.compareTo(node.getUser().getUsername());
+            if (comparison == 0) {
+                return node;
+            }
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+        }
+        return null;
+    }
+
+    // Same search as find, but safe to run without the owning lock: it gives up (returns null)
+    // after maxDepth steps or on a half-published node. Callers must validate the result.
+    public TreeNode findOptimistic(String username, int maxDepth) {
+        TreeNode node = root;
+        for (int depth = 0; node != null && depth < maxDepth; depth++) {
+            User user = node.getUser();
+            if (user == null || user.getUsername() == null) {
+                return null;
+            }
+            int comparison = username.compareTo(user.getUsername());
+            if (comparison == 0) {
+                return node;
+            }
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+        }
+        return null;
+    }
+
+    // Inserts the user, or replaces the user stored under the same username.
+    // Returns the node that now holds the user so callers can keep references to it.
+    public TreeNode put(User user) {
+        String username = user.getUsername();
+        TreeNode parent = null;
+        TreeNode node = root;
+        int comparison = 0;
+        while (node != null) {
+            parent = node;
+            comparison = username.compareTo(node.getUser().getUsername());
+            if (comparison == 0) {
+                node.setUser(user);
+                return node;
+            }
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+        }
+
+        TreeNode inserted = new TreeNode(user);
+        inserted.setParent(parent);
+        if (parent == null) {
+            root = inserted;
+        } else if (comparison < 0) {
+            parent.setLeft(inserted);
+        } else {
+            parent.setRight(inserted);
+        }
+        fixAfterInsert(inserted);
+        size++;
+        return inserted;
+    }
+
+    // Removes the node for username; returns it, or null if it was not present.
+    // Nodes are relinked rather than having their users copied, so a removed node never
+    // changes identity under a caller that still holds it.
+    public TreeNode remove(String username) {
+        TreeNode node = find(username);
+        if (node != null) {
+            removeNode(node);
+        }
+        return node;
+    }
+
+    public void removeNode(TreeNode z) {
+        TreeNode x;
+        TreeNode xParent;
+        boolean removedRed = z.isRed();
+
+        if (z.getLeft() == null) {
+            x = z.getRight();
+            xParent = z.getParent();
+            transplant(z, x);
+        } else if (z.getRight() == null) {
+            x = z.getLeft();
+            xParent = z.getParent();
+            transplant(z, x);
+        } else {
+            TreeNode y = minimum(z.getRight());
+            removedRed = y.isRed();
+            x = y.getRight();
+            if (y.getParent() == z) {
+                xParent = y;
+            } else {
+                xParent = y.getParent();
+                transplant(y, x);
+                y.setRight(z.getRight());
+                y.getRight().setParent(y);
+            }
+            transplant(z, y);
+            y.setLeft(z.getLeft());
+            y.getLeft().setParent(y);
+            y.setRed(z.isRed());
+        }
+
+        if (!removedRed) {
+            fixAfterRemove(x, xParent);
+        }
+        z.setLeft(null);
+        z.setRight(null);
+        z.setParent(null);
+        size--;
+    }
+
+    // Smallest node whose username is >= from, or null; the start of an ordered range scan
+    public TreeNode ceiling(String from) {
+        TreeNode node = root;
+        TreeNode best = null;
+        while (node != null) {
+            int comparison = from.compareTo(node.getUser().getUsername());
+            if (comparison == 0) {
+                return node;
+            }
+            if (comparison < 0) {
+                best = node;
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
+            }
+        }
+        return best;
+    }
+
+    // Offers every username starting with prefix that has cache hits to top, a min-heap (least popular
+    // at the head) that the caller keeps at limit entries. The hit count is read once, from the node.
+    public void collectPrefixHits(String prefix, int limit, PriorityQueue<Map.Entry<String, Long>> top) {
+        for (TreeNode node = ceiling(prefix); node != null; node = successor(node)) {
+            String username = node.getUser().getUsername();
+            if (!username.startsWith(prefix)) {
+                break;
+            }
+            long hits = node.getHits();
+            if (hits > 0) {
+                top.offer(new AbstractMap.SimpleEntry<>(username, hits));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+    }
+
+    // In-order successor of node, or null at the end of the tree
+    public static TreeNode successor(TreeNode node) {
+        if (node.getRight() != null) {
+            return minimum(node.getRight());
+        }
+        TreeNode parent = node.getParent();
+        while (parent != null && node == parent.getRight()) {
+            node = parent;
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+
+    // Appends every user in username order
+    public void collect(List<User> users) {
+        if (root == null) {
+            return;
+        }
+        for (TreeNode node = minimum(root); node != null; node = successor(node)) {
+            users.add(node.getUser());
+        }
+    }
+
+    // Appends every node in username order
+    public void collectNodes(List<TreeNode> nodes) {
+        if (root == null) {
+            return;
+        }
+        for (TreeNode node = minimum(root); node != null; node = successor(node)) {
+            nodes.add(node);
+        }
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private static TreeNode minimum(TreeNode node) {
+        while (node.getLeft() != null) {
+            node = node.getLeft();
+        }
+        return node;
+    }
+
+    private static boolean isRed(TreeNode node) {
+        return node != null && node.isRed();
+    }
+
+    private void transplant(TreeNode target, TreeNode replacement) {
+        TreeNode parent = target.getParent();
+        if (parent == null) {
+            root = replacement;
+        } else if (target == parent.getLeft()) {
+            parent.setLeft(replacement);
+        } else {
+            parent.setRight(replacement);
+        }
+        if (replacement != null) {
+            replacement.setParent(parent);
+        }
+    }
+
+    private void rotateLeft(TreeNode node) {
+        TreeNode pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        if (pivot.getLeft() != null) {
+            pivot.getLeft().setParent(node);
+        }
+        transplant(node, pivot);
+        pivot.setLeft(node);
+        node.setParent(pivot);
+    }
+
+    private void rotateRight(TreeNode node) {
+        TreeNode pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        if (pivot.getRight() != null) {
+            pivot.getRight().setParent(node);
+        }
+        transplant(node, pivot);
+        pivot.setRight(node);
+        node.setParent(pivot);
+    }
+
+    private void fixAfterInsert(TreeNode node) {
+        while (node != root && isRed(node.getParent())) {
+            TreeNode parent = node.getParent();
+            TreeNode grandparent = parent.getParent();
+            if (parent == grandparent.getLeft()) {
+                TreeNode uncle = grandparent.getRight();
+                if (isRed(uncle)) {
+                    parent.setRed(false);
+                    uncle.setRed(false);
+                    grandparent.setRed(true);
+                    node = grandparent;
+                } else {
+                    if (node == parent.getRight()) {
+                        node = parent;
+                        rotateLeft(node);
+                        parent = node.getParent();
+                    }
+                    parent.setRed(false);
+                    grandparent.setRed(true);
+                    rotateRight(grandparent);
+                }
+            } else {
+                TreeNode uncle = grandparent.getLeft();
+                if (isRed(uncle)) {
+                    parent.setRed(false);
+                    uncle.setRed(false);
+                    grandparent.setRed(true);
+                    node = grandparent;
+                } else {
+                    if (node == parent.getLeft()) {
+                        node = parent;
+                        rotateRight(node);
+                        parent = node.getParent();
+                    }
+                    parent.setRed(false);
+                    grandparent.setRed(true);
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        root.setRed(false);
+    }
+
+    // x may be null (a black leaf), so its parent is tracked separately
+    private void fixAfterRemove(TreeNode x, TreeNode parent) {
+        while (x != root && !isRed(x)) {
+            if (x == parent.getLeft()) {
+                TreeNode sibling = parent.getRight();
+                if (isRed(sibling)) {
+                    sibling.setRed(false);
+                    parent.setRed(true);
+                    rotateLeft(parent);
+                    sibling = parent.getRight();
+                }
+                if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+                    sibling.setRed(true);
+                    x = parent;
+                    parent = x.getParent();
+                } else {
+                    if (!isRed(sibling.getRight())) {
+                        sibling.getLeft().setRed(false);
+                        sibling.setRed(true);
+                        rotateRight(sibling);
+                        sibling = parent.getRight();
+                    }
+                    sibling.setRed(parent.isRed());
+                    parent.setRed(false);
+                    sibling.getRight().setRed(false);
+                    rotateLeft(parent);
+                    x = root;
+                    parent = null;
+                }
+            } else {
+                TreeNode sibling = parent.getLeft();
+                if (isRed(sibling)) {
+                    sibling.setRed(false);
+                    parent.setRed(true);
+                    rotateRight(parent);
+                    sibling = parent.getLeft();
+                }
+                if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+                    sibling.setRed(true);
+                    x = parent;
+                    parent = x.getParent();
+                } else {
+                    if (!isRed(sibling.getLeft())) {
+                        sibling.getRight().setRed(false);
+                        sibling.setRed(true);
+                        rotateLeft(sibling);
+                        sibling = parent.getLeft();
+                    }
+                    sibling.setRed(parent.isRed());
+                    parent.setRed(false);
+                    sibling.getLeft().setRed(false);
+                    rotateRight(parent);
+                    x = root;
+                    parent = null;
+                }
+            }
+        }
+        if (x != null) {
+            x.setRed(false);
+        }
+    }
+}
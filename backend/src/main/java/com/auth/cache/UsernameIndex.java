@@ -0,0 +1,78 @@
+package com.auth.cache;
+
+import com.auth.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Every username in the database, kept in sorted order in memory so prefix lookups are a range scan
+// (O(log n) to find the start, then one step per match) instead of a LIKE query per keystroke.
+// Unlike the user cache it is not bounded: it holds names only, not User objects.
+// The same names are also kept in a BK-tree so typo-tolerant lookups never scan the users table.
+@Component
+public class UsernameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UsernameIndex.class);
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final NavigableSet<String> usernames = new ConcurrentSkipListSet<>();
+    private final BkTree similarUsernames = new BkTree();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Keyset-paged load so startup never materialises the whole users table at once
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        String after = "";
+        int loaded = 0;
+        List<String> page;
+        do {
+            page = userRepository.findUsernamesAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (String username : page) {
+                add(username);
+            }
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        logger.info("Username index loaded with {} usernames", loaded);
+    }
+
+    public void add(String username) {
+        if (usernames.add(username)) {
+            similarUsernames.add(username);
+        }
+    }
+
+    public void remove(String username) {
+        if (usernames.remove(username)) {
+            similarUsernames.remove(username);
+        }
+    }
+
+    // Usernames within maxDistance edits (Levenshtein) of target
+    public List<BkTree.Match> findSimilar(String target, int maxDistance) {
+        return similarUsernames.search(target, maxDistance);
+    }
+
+    // Appends up to max usernames starting with prefix, in username order
+    public void collectPrefix(String prefix, int max, List<String> matches) {
+        int added = 0;
+        for (String username : usernames.tailSet(prefix, true)) {
+            if (added >= max || !username.startsWith(prefix)) {
+                break;
+            }
+            matches.add(username);
+            added++;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.auth.controller;
 
 import com.auth.model.User;
 import com.auth.security.JwtUtil;
+import com.auth.security.VerifiedTokenCache;
 import com.auth.service.AuthService;
 import com.auth.service.SessionManager;
 
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @RestController
@@ -30,6 +33,9 @@ public class AuthController {
     @Autowired
     private SessionManager sessionManager;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
      
 
     @PostMapping("/register")
@@ -37,6 +43,10 @@ public class AuthController {
         try {
             authService.register(user);
             return ResponseEntity.ok().body(Map.of("message", "User registered successfully"));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -48,7 +58,14 @@ public class AuthController {
         String username = credentials.get("username");
         String password = credentials.get("password"); 
 
-        Optional<User> userOpt = authService.authenticate(username, password);
+        Optional<User> userOpt;
+        try {
+            userOpt = authService.authenticate(username, password);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
+        }
         
         if (userOpt.isPresent()) {
             UserDetails userDetails = org.springframework.security.core.userdetails.User
@@ -58,7 +75,7 @@ public class AuthController {
                 .build();
 
             String token = jwtUtil.generateToken(userDetails);
-            sessionManager.createSession(username, token);
+            sessionManager.createSession(username, token, jwtUtil.extractExpiration(token).getTime());
 
             Map<String, Object> response = new HashMap<>();
             
@@ -75,7 +92,8 @@ public class AuthController {
         if (token != null && token.startsWith("Bearer ")) {
             String jwt = token.substring(7);
             String username = jwtUtil.extractUsername(jwt);
-            authService.logout(username);
+            authService.logout(username, jwt);
+            verifiedTokenCache.invalidate(JwtUtil.digest(jwt));
             return ResponseEntity.ok().body(Map.of("message", "Logged out successfully"));
         }
         return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
@@ -1,6 +1,17 @@
 package com.auth.controller;
 
 import com.auth.cache.CacheService;
+import com.auth.cache.FollowGraph;
+import com.auth.cache.RecentTweetsCache;
+import com.auth.cache.TweetSearchIndex;
+import com.auth.metrics.Metrics;
+import com.auth.security.RateLimiter;
+import com.auth.security.VerifiedTokenCache;
+import com.auth.service.PasswordHasher;
+import com.auth.service.SessionManager;
+import com.auth.service.TimelineService;
+import com.auth.service.TweetService;
+import com.auth.trace.TraceRecordingFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,8 +25,97 @@ public class CacheController {
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private RecentTweetsCache recentTweetsCache;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private FollowGraph followGraph;
+
+    @Autowired
+    private TweetSearchIndex tweetSearchIndex;
+
+    @Autowired
+    private TweetService tweetService;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private TraceRecordingFilter traceRecordingFilter;
+
+    @Autowired
+    private Metrics metrics;
+
     @GetMapping("/stats")
     public Map<String, Object> getCacheStats() {
         return cacheService.getCacheStats();
     }
+
+    @GetMapping("/tweets/stats")
+    public Map<String, Object> getRecentTweetsStats() {
+        return recentTweetsCache.getStats();
+    }
+
+    @GetMapping("/timelines/stats")
+    public Map<String, Object> getTimelineStats() {
+        return timelineService.getStats();
+    }
+
+    @GetMapping("/follows/stats")
+    public Map<String, Object> getFollowGraphStats() {
+        return followGraph.getStats();
+    }
+
+    @GetMapping("/search/stats")
+    public Map<String, Object> getSearchIndexStats() {
+        return tweetSearchIndex.getStats();
+    }
+
+    @GetMapping("/ingest/stats")
+    public Map<String, Object> getIngestStats() {
+        return tweetService.getIngestStats();
+    }
+
+    @GetMapping("/tokens/stats")
+    public Map<String, Object> getVerifiedTokenStats() {
+        return verifiedTokenCache.getStats();
+    }
+
+    @GetMapping("/sessions/stats")
+    public Map<String, Object> getSessionStats() {
+        return sessionManager.getStats();
+    }
+
+    @GetMapping("/hashing/stats")
+    public Map<String, Object> getPasswordHashingStats() {
+        return passwordHasher.getStats();
+    }
+
+    @GetMapping("/ratelimit/stats")
+    public Map<String, Object> getRateLimitStats() {
+        return rateLimiter.getStats();
+    }
+
+    @GetMapping("/trace/stats")
+    public Map<String, Object> getTraceRecordingStats() {
+        return traceRecordingFilter.getStats();
+    }
+
+    // Latency percentiles and rates per timer (HTTP routes, cache, repositories, JWT)
+    @GetMapping("/metrics/stats")
+    public Map<String, Object> getMetrics() {
+        return metrics.getStats();
+    }
 }
@@ -0,0 +1,83 @@
+package com.auth.controller;
+
+import com.auth.service.TimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/follows")
+@CrossOrigin(origins = "http://localhost:3000")
+public class FollowController {
+
+    @Autowired
+    private TimelineService timelineService;
+
+    private static final int MAX_MUTUALS = 100;
+
+    // Whether the authenticated user follows username, whether username follows back, and their counts
+    @GetMapping("/{username}")
+    public ResponseEntity<?> getRelationship(
+        @PathVariable String username,
+        @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        try {
+            return ResponseEntity.ok(timelineService.getRelationship(userDetails.getUsername(), username));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // People the authenticated user follows who also follow them
+    @GetMapping("/mutuals")
+    public ResponseEntity<?> getMutuals(
+        @RequestParam(value = "limit", defaultValue = "" + MAX_MUTUALS) int limit,
+        @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        if (limit < 1 || limit > MAX_MUTUALS) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Limit must be between 1 and " + MAX_MUTUALS));
+        }
+        try {
+            List<String> mutuals = timelineService.getMutuals(userDetails.getUsername(), limit);
+            return ResponseEntity.ok(mutuals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{username}")
+    public ResponseEntity<?> follow(
+        @PathVariable String username,
+        @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        try {
+            timelineService.follow(userDetails.getUsername(), username);
+            return ResponseEntity.ok(Map.of("message", "Now following " + username));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{username}")
+    public ResponseEntity<?> unfollow(
+        @PathVariable String username,
+        @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        try {
+            timelineService.unfollow(userDetails.getUsername(), username);
+            return ResponseEntity.ok(Map.of("message", "Unfollowed " + username));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.auth.controller;
+
+import com.auth.cache.TrendingHashtags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/trends")
+@CrossOrigin(origins = "http://localhost:3000")
+public class TrendsController {
+
+    @Autowired
+    private TrendingHashtags trendingHashtags;
+
+    private static final int DEFAULT_TRENDS = 10;
+    private static final int MAX_TRENDS = 50;
+
+    // Most used hashtags over the last 5m, 1h or 24h
+    @GetMapping
+    public ResponseEntity<?> getTrends(
+        @RequestParam(value = "window", defaultValue = "1h") String window,
+        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_TRENDS) int limit
+    ) {
+        try {
+            if (limit < 1 || limit > MAX_TRENDS) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TRENDS);
+            }
+            TrendingHashtags.Window trendWindow = TrendingHashtags.Window.fromLabel(window);
+            return ResponseEntity.ok(Map.of(
+                "window", trendWindow.getLabel(),
+                "trends", trendingHashtags.getTrends(trendWindow, limit, System.currentTimeMillis())
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.auth.controller;
 
 import com.auth.model.Tweet;
+import com.auth.service.TimelineService;
+import com.auth.service.TweetCursor;
 import com.auth.service.TweetService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/tweets")
@@ -20,15 +24,32 @@ public class TweetController {
     @Autowired
     private TweetService tweetService;
 
+    @Autowired
+    private TimelineService timelineService;
+
     @Data
     public static class TweetRequest {
         private String content;
     }
 
+    // Pages are keyset-paginated: pass the X-Next-Cursor header of one response as ?before= to get the next
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @GetMapping
-    public ResponseEntity<List<Tweet>> getTweets() {
-        List<Tweet> tweets = tweetService.getTweets();
-        return ResponseEntity.ok(tweets);
+    public ResponseEntity<?> getTweets(
+        @RequestParam(value = "before", required = false) String before,
+        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        try {
+            int pageSize = checkLimit(limit);
+            List<Tweet> tweets = tweetService.getTweets(parseCursor(before), pageSize);
+            return page(tweets, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping
@@ -41,7 +62,15 @@ public class TweetController {
                 request.getContent(),
                 userDetails.getUsername()
             );
+            if (tweetService.isWriteBehind()) {
+                // Queued, not yet written
+                return ResponseEntity.accepted().body(tweet);
+            }
             return ResponseEntity.ok(tweet);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -54,14 +83,70 @@ public class TweetController {
     @GetMapping("/user/{username}")
     public ResponseEntity<?> getUserTweets(
         
-        @PathVariable String username
+        @PathVariable String username,
+        @RequestParam(value = "before", required = false) String before,
+        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
     ) {
         try {
-            List<Tweet> tweets = tweetService.getUserTweets(username);
-            return ResponseEntity.ok(tweets);
+            int pageSize = checkLimit(limit);
+            List<Tweet> tweets = tweetService.getUserTweets(username, parseCursor(before), pageSize);
+            return page(tweets, pageSize);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
         }
     }
+
+    // Full-text search: every word of q must appear, newest first
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTweets(
+        @RequestParam("q") String query,
+        @RequestParam(value = "before", required = false) String before,
+        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        try {
+            int pageSize = checkLimit(limit);
+            List<Tweet> tweets = tweetService.searchTweets(query, parseCursor(before), pageSize);
+            return page(tweets, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // The authenticated user's own tweets and those of everyone they follow
+    @GetMapping("/home")
+    public ResponseEntity<?> getHomeTimeline(
+        @AuthenticationPrincipal UserDetails userDetails,
+        @RequestParam(value = "before", required = false) String before,
+        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        try {
+            int pageSize = checkLimit(limit);
+            List<Tweet> tweets = timelineService.getHomeTimeline(userDetails.getUsername(), parseCursor(before), pageSize);
+            return page(tweets, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static TweetCursor parseCursor(String before) {
+        return before == null || before.isEmpty() ? null : TweetCursor.parse(before);
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private ResponseEntity<List<Tweet>> page(List<Tweet> tweets, int limit) {
+        TweetCursor next = tweetService.nextCursor(tweets, limit);
+        if (next == null) {
+            return ResponseEntity.ok(tweets);
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, next.toString()).body(tweets);
+    }
 }
@@ -90,6 +90,8 @@ import java.util.List;
 public class UserSearchController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserSearchController.class);
+    private static final int MAX_PREFIX_RESULTS = 50;
+    private static final int MAX_FUZZY_DISTANCE = 2;
 
     @Autowired
     private UserSearchService userSearchService;
@@ -110,13 +112,43 @@ public class UserSearchController {
         }
 
         // Fetch tweets for the user
-        List<Tweet> tweets = userSearchService.getTweetsByUser(username);
+        List<Tweet> tweets = userSearchService.getTweetsByUser(user);
 
-        logger.info("User {} and their tweets fetched successfully", username);
+        logger.debug("User {} and their tweets fetched successfully", username);
 
         return new UserSearchResponse(user, tweets);
     }
 
+    // Username autocomplete, served from the in-memory username index
+    @GetMapping("/prefix")
+    public List<String> searchByPrefix(@RequestParam("q") String prefix,
+                                       @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Prefix cannot be null or empty");
+        }
+        if (limit < 1 || limit > MAX_PREFIX_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PREFIX_RESULTS);
+        }
+        return userSearchService.searchByPrefix(prefix.trim(), limit);
+    }
+
+    // Typo-tolerant search: usernames within maxDistance edits of q, for "did you mean" suggestions
+    @GetMapping("/fuzzy")
+    public List<String> searchSimilar(@RequestParam("q") String query,
+                                      @RequestParam(value = "maxDistance", defaultValue = "2") int maxDistance,
+                                      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Query cannot be null or empty");
+        }
+        if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxDistance must be between 0 and " + MAX_FUZZY_DISTANCE);
+        }
+        if (limit < 1 || limit > MAX_PREFIX_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PREFIX_RESULTS);
+        }
+        return userSearchService.searchSimilar(query.trim(), maxDistance, limit);
+    }
+
     // Response model to include user and their tweets
     public static class UserSearchResponse {
         private User user;
@@ -0,0 +1,25 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// AuthService.authenticate: user lookup plus the BCrypt check, queueing on the hashing pool included.
+@Name("com.auth.Authentication")
+@Label("Authentication")
+@Category({"Twitter App", "Security"})
+@Enabled(false)
+@StackTrace(false)
+public class AuthenticationEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Outcome")
+    @Description("success, unknown-user or wrong-password")
+    public String outcome;
+}
@@ -0,0 +1,25 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One eviction from a cache segment, made under the segment's write lock to make room for an insert.
+@Name("com.auth.CacheEviction")
+@Label("Cache Eviction")
+@Category({"Twitter App", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheEvictionEvent extends Event {
+
+    @Label("Evicted Username")
+    public String username;
+
+    @Label("Second Chances")
+    @Description("Referenced nodes moved back to the head before a cold one was found")
+    public int secondChances;
+}
@@ -0,0 +1,32 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// CacheService.getUserByUsername. A miss that is not known absent went to the database, and its
+// duration includes the query (or the wait for a concurrent load of the same username).
+@Name("com.auth.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Twitter App", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("Known Absent")
+    @Description("Answered by the negative cache without a query")
+    public boolean knownAbsent;
+
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,26 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One run of CacheService.refreshCache.
+@Name("com.auth.CacheRefresh")
+@Label("Cache Refresh")
+@Category({"Twitter App", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheRefreshEvent extends Event {
+
+    @Label("Rows Loaded")
+    @Description("Users changed since the watermark")
+    public int rowsLoaded;
+
+    @Label("Reconciled")
+    @Description("This run also checked cached users against the table for deletions")
+    public boolean reconciled;
+}
@@ -0,0 +1,71 @@
+package com.auth.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+// Starts a flight recording with the bundled jfr/twitter.jfc settings when jfr.recording.enabled=true,
+// so the app's events can be captured without a settings file on disk. The recording keeps the last
+// jfr.recording.max-age-minutes and is written to jfr.recording.directory on shutdown; take one while
+// running with jcmd <pid> JFR.dump name=twitter filename=now.jfr.
+// Without it the app's events stay disabled (each costs a check of a disabled flag) until a recording
+// started some other way enables them, e.g. jcmd <pid> JFR.start settings=default settings=twitter.jfc.
+@Component
+public class JfrRecording {
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecording.class);
+    private static final String SETTINGS = "/jfr/twitter.jfc";
+
+    @Value("${jfr.recording.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jfr.recording.directory:recordings}")
+    private String directory;
+
+    @Value("${jfr.recording.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    private Recording recording;
+
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        if (!enabled) {
+            return;
+        }
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(JfrRecording.class.getResourceAsStream(SETTINGS), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+        Path dir = Files.createDirectories(Paths.get(directory));
+        recording = new Recording(configuration);
+        recording.setName("twitter");
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        recording.setDestination(dir.resolve("twitter-" + System.currentTimeMillis() + ".jfr"));
+        recording.start();
+        logger.info("Flight recording started, written to {} on shutdown", recording.getDestination().toAbsolutePath());
+    }
+
+    // Stopping a recording with a destination writes it out
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.stop();
+            recording.close();
+        }
+    }
+}
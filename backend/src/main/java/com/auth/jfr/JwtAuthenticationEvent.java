@@ -0,0 +1,29 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JwtRequestFilter handling one bearer token (the rest of the filter chain is not included).
+@Name("com.auth.JwtAuthentication")
+@Label("JWT Authentication")
+@Category({"Twitter App", "Security"})
+@Enabled(false)
+@StackTrace(false)
+public class JwtAuthenticationEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Cached")
+    @Description("Served by the verified-token cache, no signature check")
+    public boolean cached;
+
+    @Label("Outcome")
+    @Description("accepted, invalid or no-session")
+    public String outcome;
+}
@@ -0,0 +1,33 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One TweetService read: a user's tweets, the global feed or a search.
+@Name("com.auth.TweetRead")
+@Label("Tweet Read")
+@Category({"Twitter App", "Tweets"})
+@Enabled(false)
+@StackTrace(false)
+public class TweetReadEvent extends Event {
+
+    @Label("Operation")
+    @Description("userTweets, feed or search")
+    public String operation;
+
+    @Label("Key")
+    @Description("Username or search query")
+    public String key;
+
+    @Label("From Cache")
+    @Description("Served by the recent-tweets ring without a query")
+    public boolean fromCache;
+
+    @Label("Rows Loaded")
+    public int rowsLoaded;
+}
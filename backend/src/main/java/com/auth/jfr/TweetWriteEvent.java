@@ -0,0 +1,28 @@
+package com.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// TweetService.createTweet, including the in-memory view updates when written synchronously.
+@Name("com.auth.TweetWrite")
+@Label("Tweet Write")
+@Category({"Twitter App", "Tweets"})
+@Enabled(false)
+@StackTrace(false)
+public class TweetWriteEvent extends Event {
+
+    @Label("Tweet Id")
+    public long tweetId;
+
+    @Label("Username")
+    public String username;
+
+    @Label("Queued")
+    @Description("Handed to the write-behind queue rather than inserted")
+    public boolean queued;
+}
@@ -0,0 +1,45 @@
+package com.auth.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Times every /api request per route ("http.GET /api/tweets/{id}"), security filters included. It is
+// registered with the servlet container ahead of the Spring Security chain rather than inside it, so
+// requests turned away with 401 or 429 are timed too; those never reach a handler and are grouped
+// under "http.<METHOD> (rejected)".
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HttpMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private Metrics metrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        if (!request.getRequestURI().startsWith("/api/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.timer("http." + request.getMethod() + " " + (route != null ? route : "(rejected)"))
+                .recordSince(startedAt);
+        }
+    }
+}
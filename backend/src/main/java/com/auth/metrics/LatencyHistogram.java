@@ -0,0 +1,147 @@
+package com.auth.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram in nanoseconds that many threads record into without locking.
+// Buckets are log-linear like HdrHistogram's: every power of two is split into SUB_BUCKETS equal
+// buckets, so a percentile is reported within 1/SUB_BUCKETS (~6%) of the true value, from nanoseconds
+// up to hours, in 960 counters. Recording is one AtomicLongArray increment plus two LongAdder adds.
+// Besides the totals since start, Metrics rolls the histogram once a window: the difference between two
+// cumulative snapshots is the histogram of just that window, so recent percentiles need no second
+// array to swap and no coordination with recording threads.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private final long startedAt = System.currentTimeMillis();
+
+    // Cumulative counts at the last roll and the difference to the roll before it; guarded by this
+    private long[] rolledCounts = new long[BUCKETS];
+    private long rolledTotalNanos;
+    private long rolledAt = startedAt;
+    private volatile Window lastWindow;
+
+    private static final class Window {
+        final long[] counts;
+        final long count;
+        final long totalNanos;
+        final long millis;
+
+        Window(long[] counts, long count, long totalNanos, long millis) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.millis = millis;
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    // Convenience for timing a block: record(System.nanoTime() - startedAt)
+    public void recordSince(long startedAtNanos) {
+        record(System.nanoTime() - startedAtNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    // Closes the current window; called by Metrics on a schedule
+    synchronized void roll(long now) {
+        long[] current = new long[BUCKETS];
+        long[] window = new long[BUCKETS];
+        long windowCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            current[i] = counts.get(i);
+            window[i] = current[i] - rolledCounts[i];
+            windowCount += window[i];
+        }
+        long total = totalNanos.sum();
+        lastWindow = new Window(window, windowCount, total - rolledTotalNanos, Math.max(1, now - rolledAt));
+        rolledCounts = current;
+        rolledTotalNanos = total;
+        rolledAt = now;
+    }
+
+    public Map<String, Object> getStats(long now) {
+        Map<String, Object> stats = new HashMap<>();
+        long[] snapshot = new long[BUCKETS];
+        long snapshotCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            snapshotCount += snapshot[i];
+        }
+        Map<String, Object> sinceStart = summary(snapshot, snapshotCount, totalNanos.sum(), Math.max(1, now - startedAt));
+        sinceStart.put("maxMillis", maxNanos.get() / 1e6);
+        stats.put("sinceStart", sinceStart);
+
+        Window window = lastWindow;
+        if (window != null) {
+            stats.put("lastWindow", summary(window.counts, window.count, window.totalNanos, window.millis));
+        }
+        return stats;
+    }
+
+    private static Map<String, Object> summary(long[] counts, long count, long totalNanos, long millis) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("count", count);
+        summary.put("ratePerSecond", count * 1000.0 / millis);
+        summary.put("meanMillis", count == 0 ? 0 : totalNanos / count / 1e6);
+        summary.put("p50Millis", valueAtPercentile(counts, count, 50) / 1e6);
+        summary.put("p90Millis", valueAtPercentile(counts, count, 90) / 1e6);
+        summary.put("p99Millis", valueAtPercentile(counts, count, 99) / 1e6);
+        summary.put("p999Millis", valueAtPercentile(counts, count, 99.9) / 1e6);
+        summary.put("maxMillis", valueAtPercentile(counts, count, 100) / 1e6);
+        return summary;
+    }
+
+    // Highest value in the bucket holding the given percentile, 0 for an empty histogram
+    static long valueAtPercentile(long[] counts, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(counts.length - 1);
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,41 @@
+package com.auth.metrics;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Named latency timers for the metrics endpoint (/api/cache/metrics/stats). Names are dotted by
+// layer: http.<METHOD> <route>, cache.<operation>, db.<Repository>.<method>, jwt.<step>.
+// Hot paths look their timer up once and keep it in a field; timer(name) is a map lookup after that.
+// Every timer reports percentiles and rates since start and for the last WINDOW_MILLIS.
+@Component
+public class Metrics {
+    private static final long WINDOW_MILLIS = 60000;
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    public LatencyHistogram timer(String name) {
+        LatencyHistogram timer = timers.get(name);
+        return timer != null ? timer : timers.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    @Scheduled(fixedRate = WINDOW_MILLIS)
+    public void rollWindows() {
+        long now = System.currentTimeMillis();
+        for (LatencyHistogram timer : timers.values()) {
+            timer.roll(now);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> stats = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : timers.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().getStats(now));
+        }
+        return stats;
+    }
+}
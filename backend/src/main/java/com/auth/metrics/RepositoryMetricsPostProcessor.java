@@ -0,0 +1,67 @@
+package com.auth.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every Spring Data repository call as db.<Repository>.<method> by wrapping each repository bean
+// in a proxy over its repository interfaces, so no repository or caller has to change.
+// Metrics is looked up lazily: a post-processor is created before ordinary beans, and fetching Metrics
+// that early would create it before @Scheduled processing is in place.
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    @Autowired
+    private ObjectProvider<Metrics> metrics;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository)) {
+            return bean;
+        }
+        List<Class<?>> interfaces = new ArrayList<>();
+        String name = null;
+        for (Class<?> type : ClassUtils.getAllInterfacesAsSet(bean)) {
+            if (Repository.class.isAssignableFrom(type)) {
+                interfaces.add(type);
+                // Ours are the ones outside Spring Data (UserRepository, not JpaRepository)
+                if (!type.getName().startsWith("org.springframework.")) {
+                    name = type.getSimpleName();
+                }
+            }
+        }
+        if (name == null) {
+            return bean;
+        }
+
+        String prefix = "db." + name + ".";
+        Map<Method, LatencyHistogram> timers = new ConcurrentHashMap<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(bean, args);
+            }
+            LatencyHistogram timer = timers.computeIfAbsent(method, key -> metrics.getObject().timer(prefix + key.getName()));
+            long startedAt = System.nanoTime();
+            try {
+                return method.invoke(bean, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                timer.recordSince(startedAt);
+            }
+        };
+        return Proxy.newProxyInstance(bean.getClass().getClassLoader(), interfaces.toArray(new Class<?>[0]), handler);
+    }
+}
@@ -0,0 +1,35 @@
+package com.auth.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import javax.persistence.*;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// follower follows followee. Edges store plain user ids rather than User references: the timeline
+// service only ever needs the ids, and loading a follower list should not pull in every follower's row.
+@Entity
+@Table(name = "follows",
+    uniqueConstraints = @UniqueConstraint(name = "uk_follows_follower_followee", columnNames = {"follower_id", "followee_id"}),
+    // The unique constraint's index serves "who does X follow"; this one serves "who follows X" (fan-out)
+    indexes = @Index(name = "idx_follows_followee", columnList = "followee_id, follower_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Follow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "follower_id", nullable = false)
+    private Long followerId;
+
+    @Column(name = "followee_id", nullable = false)
+    private Long followeeId;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -1,23 +1,33 @@
 package com.auth.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import javax.persistence.*;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    // Keyset pagination: the global feed walks the primary key, per-user timelines walk (user_id, id)
+    @Index(name = "idx_tweet_user_id", columnList = "user_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Tweet {
+public class Tweet implements Persistable<Long> {
+    // Assigned by TweetIdGenerator before saving: time-ordered, and no identity round-trip on insert.
+    // Sent as a string because 64-bit ids do not fit in a JavaScript number.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
 
     @Column(nullable = false, length = 280)
@@ -29,4 +39,22 @@ public class Tweet {
     private User user;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime timestamp;
+
+    // Ids are assigned up front, so Spring Data cannot tell new tweets by a null id; without this save()
+    // would merge (SELECT, then INSERT) instead of persisting
+    @Transient
+    @JsonIgnore
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
 }
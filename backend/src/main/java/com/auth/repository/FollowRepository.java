@@ -0,0 +1,34 @@
+package com.auth.repository;
+
+import com.auth.model.Follow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+    boolean existsByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+    long deleteByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+    long countByFolloweeId(Long followeeId);
+
+    // Ids only, so fanning a tweet out to thousands of followers does not hydrate thousands of entities
+    @Query("select f.followerId from Follow f where f.followeeId = :userId")
+    List<Long> findFollowerIds(@Param("userId") Long userId);
+
+    @Query("select f.followeeId from Follow f where f.followerId = :userId")
+    List<Long> findFolloweeIds(@Param("userId") Long userId);
+
+    // One keyset page of edges in id order; used to load FollowGraph without findAll()
+    @Query("select f from Follow f where f.id > :after order by f.id")
+    List<Follow> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+    // The followees of userId with more than limit followers, in one grouped query
+    @Query("select f.followeeId from Follow f where f.followeeId in"
+            + " (select g.followeeId from Follow g where g.followerId = :userId)"
+            + " group by f.followeeId having count(f) > :limit")
+    List<Long> findFolloweeIdsWithMoreFollowersThan(@Param("userId") Long userId, @Param("limit") long limit);
+}
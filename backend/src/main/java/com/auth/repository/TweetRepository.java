@@ -2,15 +2,46 @@ package com.auth.repository;
 
 import com.auth.model.Tweet;
 
+import java.util.Collection;
 import java.util.List;
 
 // import org.springframework.data.domain.Page;
-// import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository 
 public interface TweetRepository extends JpaRepository<Tweet, Long> {
-    List<Tweet> findByUserUsernameOrderByTimestampDesc(String username);
-    List<Tweet> findAllByOrderByTimestampDesc();
+
+    // Keyset pages, newest first. Tweet ids are time-ordered, so a page is a range scan on the primary key
+    // (or on (user_id, id) for one author) and the cursor is just the last id seen.
+    // The author is join-fetched so a page is one query, not one per distinct user.
+    @Query("select t from Tweet t join fetch t.user order by t.id desc")
+    List<Tweet> findLatest(Pageable pageable);
+
+    @Query("select t from Tweet t join fetch t.user where t.id < :id order by t.id desc")
+    List<Tweet> findPageBefore(@Param("id") Long id, Pageable pageable);
+
+    @Query("select t from Tweet t join fetch t.user where t.user.id = :userId order by t.id desc")
+    List<Tweet> findLatestByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select t from Tweet t join fetch t.user where t.user.id = :userId and t.id < :id order by t.id desc")
+    List<Tweet> findUserPageBefore(@Param("userId") Long userId, @Param("id") Long id, Pageable pageable);
+
+    // Search results: the matching tweets with their authors in one query
+    @Query("select t from Tweet t join fetch t.user where t.id in :ids")
+    List<Tweet> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // One keyset page of (id, content) in id order; used to build TweetSearchIndex without findAll()
+    @Query("select t.id as id, t.content as content from Tweet t where t.id > :after order by t.id")
+    List<TweetText> findTextAfter(@Param("after") Long after, Pageable pageable);
+
+    // Home timelines: the same pages over a set of authors (a user's followees plus the user)
+    @Query("select t from Tweet t join fetch t.user where t.user.id in :userIds order by t.id desc")
+    List<Tweet> findLatestByUsers(@Param("userIds") Collection<Long> userIds, Pageable pageable);
+
+    @Query("select t from Tweet t join fetch t.user where t.user.id in :userIds and t.id < :id order by t.id desc")
+    List<Tweet> findUsersPageBefore(@Param("userIds") Collection<Long> userIds, @Param("id") Long id, Pageable pageable);
 }
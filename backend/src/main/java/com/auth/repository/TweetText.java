@@ -0,0 +1,7 @@
+package com.auth.repository;
+
+// Projection of just the columns the search index needs
+public interface TweetText {
+    Long getId();
+    String getContent();
+}
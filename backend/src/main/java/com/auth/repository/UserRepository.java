@@ -1,8 +1,15 @@
 package com.auth.repository;
 
 import com.auth.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -10,6 +17,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     long countBy();
+
+    // Rows inserted or updated after the cache refresh watermark
+    List<User> findByUpdatedAtAfterOrderByUpdatedAtAsc(LocalDateTime since);
+
+    // One keyset page of usernames in username order; used to build UsernameIndex without findAll()
+    @Query("select u.username from User u where u.username > :after order by u.username")
+    List<String> findUsernamesAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
 }
 
 
@@ -1,6 +1,10 @@
 package com.auth.security;
 
+import com.auth.jfr.JwtAuthenticationEvent;
+import com.auth.metrics.LatencyHistogram;
+import com.auth.metrics.Metrics;
 import com.auth.service.SessionManager;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +16,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -24,9 +29,30 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
 
+    // Username of an authenticated request, for filters that run outside the security chain and so
+    // cannot read the SecurityContext once the chain has returned (TraceRecordingFilter)
+    public static final String USERNAME_ATTRIBUTE = "com.auth.username";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private Metrics metrics;
+
+    private LatencyHistogram authenticateTimer; // everything this filter does for an accepted bearer token
+    private LatencyHistogram verifyTimer;       // parse and signature check, i.e. verified-token cache misses
+
+    @PostConstruct
+    public void registerTimers() {
+        authenticateTimer = metrics.timer("jwt.authenticate");
+        verifyTimer = metrics.timer("jwt.verify");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -41,42 +67,61 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-                logger.debug("Extracted username from JWT: {}", username);
-            } catch (Exception e) {
-                logger.error("Error extracting username from JWT: {}", e.getMessage());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                return;
-            }
-        }
+            long startedAt = System.nanoTime();
+            JwtAuthenticationEvent event = new JwtAuthenticationEvent();
+            event.begin();
+            String jwt = authorizationHeader.substring(7);
+            String tokenDigest = JwtUtil.digest(jwt);
+            long now = System.currentTimeMillis();
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                if (jwtUtil.validateToken(jwt)) {
-                    UserDetails userDetails = new User(username, "", new ArrayList<>());
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.debug("Successfully authenticated user: {}", username);
-                } else {
-                    logger.warn("Invalid token for user: {}", username);
+            // Repeat tokens skip the parse and HMAC check entirely
+            UserDetails userDetails = verifiedTokenCache.get(tokenDigest, now);
+            event.cached = userDetails != null;
+            if (userDetails == null) {
+                long verifyStartedAt = System.nanoTime();
+                try {
+                    Claims claims = jwtUtil.extractAllClaims(jwt);
+                    userDetails = new User(claims.getSubject(), "", new ArrayList<>());
+                    verifiedTokenCache.put(tokenDigest, userDetails, claims.getExpiration().getTime(), now);
+                } catch (Exception e) {
+                    logger.warn("Rejected JWT: {}", e.getMessage());
+                    commit(event, null, "invalid");
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    return; 
+                    return;
+                } finally {
+                    verifyTimer.recordSince(verifyStartedAt);
                 }
-            } catch (Exception e) {
-                logger.error("Error during token validation: {}", e.getMessage());
+            }
+
+            // A valid signature is not enough: the token must not have been logged out
+            if (!sessionManager.isSessionValid(tokenDigest, now)) {
+                logger.debug("Rejected JWT without a session for user: {}", userDetails.getUsername());
+                commit(event, userDetails.getUsername(), "no-session");
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                logger.debug("Authenticated user: {}", userDetails.getUsername());
+            }
+            request.setAttribute(USERNAME_ATTRIBUTE, userDetails.getUsername());
+            authenticateTimer.recordSince(startedAt);
+            commit(event, userDetails.getUsername(), "accepted");
         }
   
         chain.doFilter(request, response);
     }
+
+    private static void commit(JwtAuthenticationEvent event, String username, String outcome) {
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
 }
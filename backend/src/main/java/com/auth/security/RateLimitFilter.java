@@ -0,0 +1,69 @@
+package com.auth.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Throttles /api requests per client with RateLimiter. Runs after JwtRequestFilter so an
+// authenticated request is limited per user (wherever it comes from) and anything else, login
+// included, per remote IP. Over the limit the request gets 429 with a Retry-After in seconds.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String uri = request.getRequestURI();
+        if (!enabled || request.getMethod().equals("OPTIONS") || !uri.startsWith("/api/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String client = authentication != null && authentication.isAuthenticated()
+            ? "user:" + authentication.getName()
+            : "ip:" + request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(groupOf(request.getMethod(), uri), client, System.nanoTime());
+        if (waitNanos > 0) {
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999999999))));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Too many requests, try again later\"}");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    static RateLimiter.Group groupOf(String method, String uri) {
+        if (uri.startsWith("/api/auth/")) {
+            return RateLimiter.Group.AUTH;
+        }
+        if (uri.startsWith("/api/search/") || uri.startsWith("/api/tweets/search")) {
+            return RateLimiter.Group.SEARCH;
+        }
+        boolean write = method.equals("POST") || method.equals("PUT") || method.equals("DELETE");
+        if (write && (uri.startsWith("/api/tweets") || uri.startsWith("/api/follows/"))) {
+            return RateLimiter.Group.WRITE;
+        }
+        return RateLimiter.Group.DEFAULT;
+    }
+}
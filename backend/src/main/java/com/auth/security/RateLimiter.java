@@ -0,0 +1,165 @@
+package com.auth.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token buckets per (endpoint group, client), client being the user for authenticated requests and
+// the remote IP otherwise. Each group has its own burst capacity and refill rate, configured as
+// ratelimit.<group>.capacity and ratelimit.<group>.refill-per-second.
+// A bucket is one AtomicLong updated with CAS, so an allowed request costs a map lookup and usually a
+// single compareAndSet. It stores the time at which the bucket would be empty (the GCRA form of a
+// token bucket): tokens available at time t are (t - emptyAt) / interval, capped at capacity.
+// A bucket that has refilled completely behaves exactly like a new one, so the periodic sweep drops
+// those. A group never holds more than MAX_BUCKETS_PER_GROUP clients: when it is full, a new client
+// first triggers an early sweep (at most once a second, so a flood of new clients cannot turn it into
+// a full scan per request), and if that frees nothing it is hashed onto one of OVERFLOW_STRIPES shared
+// buckets. Someone spraying source addresses then only drains the stripes their addresses land on
+// rather than a single bucket every newcomer shares.
+@Component
+public class RateLimiter {
+    private static final int MAX_BUCKETS_PER_GROUP = 50000;
+    private static final int OVERFLOW_STRIPES = 1024; // power of two
+    private static final long EARLY_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    public enum Group {
+        AUTH("auth", 10, 0.2),
+        WRITE("write", 30, 1),
+        SEARCH("search", 20, 5),
+        DEFAULT("default", 100, 20);
+
+        private final String key;
+        private final long defaultCapacity;
+        private final double defaultRefillPerSecond;
+
+        Group(String key, long defaultCapacity, double defaultRefillPerSecond) {
+            this.key = key;
+            this.defaultCapacity = defaultCapacity;
+            this.defaultRefillPerSecond = defaultRefillPerSecond;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final class Limit {
+        final long capacity;
+        final long intervalNanos; // time to earn one token
+        final long burstNanos;    // time to refill from empty to capacity
+        final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final AtomicLong[] overflow = new AtomicLong[OVERFLOW_STRIPES];
+        final AtomicLong lastEarlySweep;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder limited = new LongAdder();
+        final LongAdder overflowed = new LongAdder(); // requests from clients that got an overflow stripe
+
+        Limit(long capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.intervalNanos = (long) (1e9 / refillPerSecond);
+            this.burstNanos = capacity * intervalNanos;
+            for (int i = 0; i < overflow.length; i++) {
+                overflow[i] = new AtomicLong(now - burstNanos);
+            }
+            this.lastEarlySweep = new AtomicLong(now - EARLY_SWEEP_INTERVAL_NANOS);
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+
+    @PostConstruct
+    public void configure() {
+        long now = System.nanoTime();
+        for (Group group : Group.values()) {
+            String prefix = "ratelimit." + group.key + ".";
+            long capacity = environment.getProperty(prefix + "capacity", Long.class, group.defaultCapacity);
+            double refill = environment.getProperty(prefix + "refill-per-second", Double.class, group.defaultRefillPerSecond);
+            if (capacity < 1 || refill <= 0) {
+                throw new IllegalStateException(prefix + "capacity must be >= 1 and refill-per-second > 0");
+            }
+            limits.put(group, new Limit(capacity, refill, now));
+        }
+    }
+
+    // Takes one token from the client's bucket: 0 if the request may proceed, otherwise how many
+    // nanoseconds until a token is available
+    public long tryAcquire(Group group, String client, long nowNanos) {
+        Limit limit = limits.get(group);
+        AtomicLong bucket = limit.buckets.get(client);
+        if (bucket == null) {
+            bucket = newBucket(limit, client, nowNanos);
+        }
+        while (true) {
+            long emptyAt = bucket.get();
+            // A bucket never holds more than capacity tokens however long it sat idle
+            long start = Math.max(emptyAt, nowNanos - limit.burstNanos);
+            long next = start + limit.intervalNanos;
+            if (next > nowNanos) {
+                limit.limited.increment();
+                return next - nowNanos;
+            }
+            if (bucket.compareAndSet(emptyAt, next)) {
+                limit.allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private static AtomicLong newBucket(Limit limit, String client, long nowNanos) {
+        if (limit.buckets.size() >= MAX_BUCKETS_PER_GROUP) {
+            long last = limit.lastEarlySweep.get();
+            if (nowNanos - last >= EARLY_SWEEP_INTERVAL_NANOS && limit.lastEarlySweep.compareAndSet(last, nowNanos)) {
+                evictIdle(limit, nowNanos);
+            }
+        }
+        if (limit.buckets.size() < MAX_BUCKETS_PER_GROUP) {
+            return limit.buckets.computeIfAbsent(client, key -> new AtomicLong(nowNanos - limit.burstNanos));
+        }
+        limit.overflowed.increment();
+        int h = client.hashCode();
+        return limit.overflow[(h ^ (h >>> 16)) & (OVERFLOW_STRIPES - 1)];
+    }
+
+    // Drops buckets that have refilled completely; recreating one later gives the same answer
+    @Scheduled(fixedRate = 10000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (Limit limit : limits.values()) {
+            evictIdle(limit, now);
+        }
+    }
+
+    private static void evictIdle(Limit limit, long nowNanos) {
+        limit.buckets.values().removeIf(bucket -> bucket.get() <= nowNanos - limit.burstNanos);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Map.Entry<Group, Limit> entry : limits.entrySet()) {
+            Limit limit = entry.getValue();
+            Map<String, Object> groupStats = new HashMap<>();
+            groupStats.put("capacity", limit.capacity);
+            groupStats.put("refillPerSecond", 1e9 / limit.intervalNanos);
+            groupStats.put("clients", limit.buckets.size());
+            groupStats.put("allowed", limit.allowed.sum());
+            groupStats.put("limited", limit.limited.sum());
+            groupStats.put("overflowed", limit.overflowed.sum());
+            stats.put(entry.getKey().getKey(), groupStats);
+        }
+        stats.put("maxClientsPerGroup", MAX_BUCKETS_PER_GROUP);
+        stats.put("overflowStripes", OVERFLOW_STRIPES);
+        return stats;
+    }
+}
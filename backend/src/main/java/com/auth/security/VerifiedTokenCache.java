@@ -0,0 +1,85 @@
+package com.auth.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// JWTs whose signature has already been verified, so a repeat token costs a SHA-256 and a map lookup
+// instead of a full parse and HMAC check. Keyed by JwtUtil.digest(token) so raw tokens are never kept.
+// Every entry expires at the token's own exp claim. Bounded to MAX_ENTRIES the same way as
+// NegativeCache: all tokens are issued with the same validity, so insertion order is close to expiry
+// order and a FIFO queue is enough to drop the oldest.
+@Component
+public class VerifiedTokenCache {
+    private static final int MAX_ENTRIES = 10000;
+
+    private static final class Entry {
+        final UserDetails userDetails;
+        final long expiresAt;
+
+        Entry(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<String, Long>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // The user the token was issued to, or null if it has not been verified (or has expired since)
+    public UserDetails get(String tokenDigest, long now) {
+        Entry entry = entries.get(tokenDigest);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            entries.remove(tokenDigest, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.userDetails;
+    }
+
+    // Call only after the token's signature and expiry have been checked
+    public void put(String tokenDigest, UserDetails userDetails, long expiresAt, long now) {
+        entries.put(tokenDigest, new Entry(userDetails, expiresAt));
+        insertionOrder.add(new AbstractMap.SimpleImmutableEntry<>(tokenDigest, expiresAt));
+
+        // Drop expired entries from the head, then the oldest live ones while over the bound
+        Map.Entry<String, Long> oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (oldest.getValue() <= now || entries.size() > MAX_ENTRIES)) {
+            Map.Entry<String, Long> polled = insertionOrder.poll();
+            if (polled != null) {
+                Entry current = entries.get(polled.getKey());
+                if (current != null && current.expiresAt == polled.getValue()) {
+                    entries.remove(polled.getKey(), current);
+                }
+            }
+        }
+    }
+
+    public void invalidate(String tokenDigest) {
+        entries.remove(tokenDigest);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", MAX_ENTRIES);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+}
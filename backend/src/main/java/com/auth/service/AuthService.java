@@ -1,10 +1,11 @@
 package com.auth.service;
 
 import com.auth.cache.CacheService;
+import com.auth.cache.UsernameIndex;
+import com.auth.jfr.AuthenticationEvent;
 import com.auth.model.User;
 import com.auth.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
@@ -21,7 +22,7 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private SessionManager sessionManager;
@@ -29,9 +30,12 @@ public class AuthService {
     @Autowired
     private CacheService cacheService; // Inject CacheService
 
+    @Autowired
+    private UsernameIndex usernameIndex;
+
     // Register a new user
     public User register(User user) {
-        logger.info("Registering user with username: {}", user.getUsername());
+        logger.debug("Registering user with username: {}", user.getUsername());
 
         // Validate username (Instagram-style: alphanumeric, underscores, periods)
         if (!user.getUsername().matches("^[a-zA-Z0-9_\\.]+$")) {
@@ -55,70 +59,66 @@ public class AuthService {
         }
 
     
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHasher.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
 
+        // A lookup made before this registration may have cached the username as absent
+        cacheService.invalidateAbsentUsername(savedUser.getUsername());
+        usernameIndex.add(savedUser.getUsername());
+
        
         cacheService.addUserToCache(savedUser);
-        logger.info("User {} added to the cache after registration", user.getUsername());
+        logger.debug("User {} added to the cache after registration", user.getUsername());
 
         return savedUser;
     }
     // Authenticate a user with username and password
     public Optional<User> authenticate(String username, String password) {
-        logger.info("Authenticating user with username: {}", username);
-
-        // First, check the cache for the user
-        User cachedUser = cacheService.getUserByUsername(username);
-        if (cachedUser != null) {
-            logger.info("User {} found in cache", username);
-
-            if (passwordEncoder.matches(password, cachedUser.getPassword())) {
-                logger.info("Authentication successful for user {} via cache", username);
-                return Optional.of(cachedUser);
-            } else {
-                logger.warn("Authentication failed for user {} via cache: Incorrect password", username);
-            }
-        } else {
-            logger.info("User {} not found in cache. Checking database...", username);
+        logger.debug("Authenticating user with username: {}", username);
+        AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
+
+        // The cache loads the user from the database on a miss, and caches unknown usernames as absent
+        User user = cacheService.getUserByUsername(username);
+        if (user == null) {
+            logger.warn("User {} not found", username);
+            commit(event, username, "unknown-user");
+            return Optional.empty();
         }
 
-        // If not in cache, check the database
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            logger.info("User {} found in database", username);
-
-            if (passwordEncoder.matches(password, userOpt.get().getPassword())) {
-                logger.info("Authentication successful for user {} via database", username);
-
-                // Add the user to the cache after successful authentication
-                cacheService.addUserToCache(userOpt.get());
-                logger.info("User {} added to cache after successful authentication", username);
-
-                return userOpt;
-            } else {
-                logger.warn("Authentication failed for user {} via database: Incorrect password", username);
-            }
-        } else {
-            logger.warn("User {} not found in database", username);
+        // BCrypt runs on the bounded hashing pool; throws RejectedExecutionException when it is saturated
+        if (passwordHasher.matches(password, user.getPassword())) {
+            logger.debug("Authentication successful for user {}", username);
+            commit(event, username, "success");
+            return Optional.of(user);
         }
 
+        logger.warn("Authentication failed for user {}: Incorrect password", username);
+        commit(event, username, "wrong-password");
         return Optional.empty();
     }
 
-    // Logout a user and invalidate their session
-    public void logout(String username) {
-        logger.info("Logging out user with username: {}", username);
-        sessionManager.invalidateSession(username);
-        logger.info("User {} logged out and session invalidated", username);
+    private static void commit(AuthenticationEvent event, String username, String outcome) {
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    // Logout a user and invalidate the session of this token (their other devices stay logged in)
+    public void logout(String username, String token) {
+        logger.debug("Logging out user with username: {}", username);
+        sessionManager.invalidateSession(token);
+        logger.debug("User {} logged out and session invalidated", username);
     }
 
     public Iterable<User> getAllUsers() {
         if (cacheService.isCacheEmpty()) {
-            logger.info("Cache is empty. Fetching all users from the database...");
+            logger.debug("Cache is empty. Fetching all users from the database...");
             return userRepository.findAll();
         } else {
-            logger.info("Fetching all users from the cache...");
+            logger.debug("Fetching all users from the cache...");
             return cacheService.getAllUsersFromCache();
         }
     } 
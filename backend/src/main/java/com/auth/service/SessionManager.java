@@ -1,28 +1,164 @@
 package com.auth.service;
 
+import com.auth.cache.TimingWheel;
+import com.auth.security.JwtUtil;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+// Server-side sessions, one per issued token, so a logged-out token stops working even though its
+// signature is still valid. JwtRequestFilter checks isSessionValid on every request: a single
+// ConcurrentHashMap read and an expiry comparison, no lock.
+// A user can be logged in from several devices at once, up to MAX_SESSIONS_PER_USER (logging in
+// again drops their oldest session). Expired sessions are reclaimed by a TimingWheel advanced once a
+// second, so expiry work is proportional to what actually expires rather than a scan of every session.
+// At MAX_SESSIONS the session closest to expiry is dropped to make room.
+// Sessions live in memory only: after a restart everyone has to log in again.
 @Service
 public class SessionManager {
-    private final Map<String, String> sessions = new HashMap<>();
+    private static final int MAX_SESSIONS = 100000;
+    private static final int MAX_SESSIONS_PER_USER = 10;
+    private static final long WHEEL_TICK_MILLIS = 1000;
+    private static final int WHEEL_LEVELS = 4;
+
+    private static final class Session {
+        final String username;
+        final String tokenDigest;
+        final long expiresAt;
+        TimingWheel.Timer<Session> expiryTimer;
+
+        Session(String username, String tokenDigest, long expiresAt) {
+            this.username = username;
+            this.tokenDigest = tokenDigest;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // token digest -> session
+    private final Map<String, Deque<Session>> sessionsByUser = new ConcurrentHashMap<>(); // oldest first
+    private final TimingWheel<Session> expiryWheel =
+            new TimingWheel<>(WHEEL_TICK_MILLIS, WHEEL_LEVELS, System.currentTimeMillis());
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder loggedOut = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    // expiresAt is the token's exp claim, so the session never outlives the token
+    public void createSession(String username, String token, long expiresAt) {
+        Session session = new Session(username, JwtUtil.digest(token), expiresAt);
+        session.expiryTimer = expiryWheel.schedule(session, expiresAt);
+        sessions.put(session.tokenDigest, session);
+        created.increment();
+
+        List<Session> displaced = new ArrayList<>(1);
+        sessionsByUser.compute(username, (key, userSessions) -> {
+            if (userSessions == null) {
+                userSessions = new ArrayDeque<>();
+            }
+            userSessions.addLast(session);
+            if (userSessions.size() > MAX_SESSIONS_PER_USER) {
+                displaced.add(userSessions.pollFirst());
+            }
+            return userSessions;
+        });
+        for (Session oldest : displaced) {
+            remove(oldest);
+            evicted.increment();
+        }
+
+        while (sessions.size() > MAX_SESSIONS) {
+            Session soonest = expiryWheel.pollEarliest();
+            if (soonest == null) {
+                break;
+            }
+            forget(soonest);
+            evicted.increment();
+        }
+    }
+
+    public boolean isSessionValid(String tokenDigest, long now) {
+        Session session = sessions.get(tokenDigest);
+        return session != null && session.expiresAt > now;
+    }
+
+    // Logs out the one device the token belongs to
+    public void invalidateSession(String token) {
+        Session session = sessions.get(JwtUtil.digest(token));
+        if (session != null && remove(session)) {
+            loggedOut.increment();
+        }
+    }
+
+    // Logs a user out everywhere
+    public void invalidateAllSessions(String username) {
+        // Per-user deques are only touched inside the map's compute methods, which lock the entry
+        List<Session> snapshot = new ArrayList<>();
+        sessionsByUser.computeIfPresent(username, (key, userSessions) -> {
+            snapshot.addAll(userSessions);
+            return userSessions;
+        });
+        for (Session session : snapshot) {
+            if (remove(session)) {
+                loggedOut.increment();
+            }
+        }
+    }
+
+    public int getSessionCount(String username) {
+        int[] count = new int[1];
+        sessionsByUser.computeIfPresent(username, (key, userSessions) -> {
+            count[0] = userSessions.size();
+            return userSessions;
+        });
+        return count[0];
+    }
 
-    public void createSession(String username, String token) {
-        sessions.put(username, token);
+    @Scheduled(fixedRate = WHEEL_TICK_MILLIS)
+    public void expireSessions() {
+        for (Session session : expiryWheel.advance(System.currentTimeMillis())) {
+            forget(session);
+            expired.increment();
+        }
     }
 
-    public Optional<String> getSession(String username) {
-        return Optional.ofNullable(sessions.get(username));
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("users", sessionsByUser.size());
+        stats.put("maxSessions", MAX_SESSIONS);
+        stats.put("maxSessionsPerUser", MAX_SESSIONS_PER_USER);
+        stats.put("created", created.sum());
+        stats.put("loggedOut", loggedOut.sum());
+        stats.put("expired", expired.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
     }
 
-    public void invalidateSession(String username) {
-        sessions.remove(username);
+    // Removes a live session, cancelling its expiry timer; false if it was already gone
+    private boolean remove(Session session) {
+        if (!forget(session)) {
+            return false;
+        }
+        expiryWheel.cancel(session.expiryTimer);
+        return true;
     }
 
-    public boolean isSessionValid(String username, String token) {
-        String storedToken = sessions.get(username);
-        return storedToken != null && storedToken.equals(token);
+    // Drops a session from both maps once its timer is no longer in the wheel
+    private boolean forget(Session session) {
+        boolean removed = sessions.remove(session.tokenDigest, session);
+        sessionsByUser.computeIfPresent(session.username, (key, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+        return removed;
     }
 }
@@ -0,0 +1,441 @@
+package com.auth.service;
+
+import com.auth.cache.CacheService;
+import com.auth.cache.FollowGraph;
+import com.auth.cache.RecentTweetsCache;
+import com.auth.cache.SingleFlight;
+import com.auth.cache.TweetRing;
+import com.auth.model.Follow;
+import com.auth.model.Tweet;
+import com.auth.model.User;
+import com.auth.repository.FollowRepository;
+import com.auth.repository.TweetRepository;
+import com.auth.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Home timelines with hybrid fan-out.
+// Ordinary authors are fanned out on write: TweetService.createTweet hands the new tweet to a small
+// executor that pushes it into the materialised timeline of every follower who has one. Authors with
+// more than FANOUT_FOLLOWER_LIMIT followers are skipped on write and their recent-tweets rings are
+// merged in at read time instead, so one celebrity tweet never turns into millions of pushes.
+// A read is a k-way merge of one page from the pushed ring and one page per celebrity followee,
+// i.e. O(page size * celebrities followed) whatever the size of the follow graph; it only falls
+// back to the database when a page runs past what memory holds.
+// Timelines are only materialised for users who read them, bounded to MAX_TIMELINES with CLOCK
+// eviction like RecentTweetsCache, and rebuilt after TIMELINE_MAX_AGE_MILLIS so an author who
+// crosses the fan-out limit moves between the push and pull sides.
+@Service
+public class TimelineService {
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+    public static final int FANOUT_FOLLOWER_LIMIT = 5000;
+    public static final int TIMELINE_CAPACITY = 800; // Tweets kept per materialised timeline
+    private static final int MAX_TIMELINES = 5000; // Memory budget: at most 4,000,000 tweet references
+    private static final long TIMELINE_MAX_AGE_MILLIS = 10 * 60 * 1000L;
+    private static final int FANOUT_QUEUE_SIZE = 10000;
+
+    private static final class HomeTimeline {
+        final TweetRing pushed = new TweetRing(TIMELINE_CAPACITY);
+        final List<Long> authorIds; // every followee plus the owner; what the database fallback reads
+        final Set<Long> pulledAuthorIds; // followees over FANOUT_FOLLOWER_LIMIT when the timeline was built
+        final List<User> pulledAuthors;
+        final long builtAt;
+
+        HomeTimeline(List<Long> authorIds, Set<Long> pulledAuthorIds, List<User> pulledAuthors, long builtAt) {
+            this.authorIds = authorIds;
+            this.pulledAuthorIds = pulledAuthorIds;
+            this.pulledAuthors = pulledAuthors;
+            this.builtAt = builtAt;
+        }
+    }
+
+    private final Map<Long, HomeTimeline> timelines = new ConcurrentHashMap<>();
+    private final Queue<Long> clock = new ConcurrentLinkedQueue<>(); // user ids in admission order
+    private final SingleFlight<Long, HomeTimeline> timelineBuilds = new SingleFlight<>();
+
+    // Fan-out runs off the request thread; when the queue is full the tweeting thread does it itself,
+    // which slows writers down instead of dropping pushes
+    private final ThreadPoolExecutor fanOutExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(FANOUT_QUEUE_SIZE), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder databaseFallbacks = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder pulledTweets = new LongAdder();
+    private final LongAdder skippedFanOuts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private RecentTweetsCache recentTweetsCache;
+
+    @Autowired
+    private FollowGraph followGraph;
+
+    // Idempotent. Not @Transactional: the insert commits in the repository's own transaction, so a
+    // concurrent identical follow that wins the race shows up here as a unique-key violation (which
+    // means "already following") instead of failing a surrounding transaction at commit.
+    public void follow(String followerName, String followeeName) {
+        User follower = requireUser(followerName);
+        User followee = requireUser(followeeName);
+        if (follower.getId().equals(followee.getId())) {
+            throw new IllegalArgumentException("You cannot follow yourself");
+        }
+        if (!followRepository.existsByFollowerIdAndFolloweeId(follower.getId(), followee.getId())) {
+            Follow follow = new Follow();
+            follow.setFollowerId(follower.getId());
+            follow.setFolloweeId(followee.getId());
+            try {
+                followRepository.saveAndFlush(follow);
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("{} already follows {}", followerName, followeeName);
+            }
+        }
+        afterCommit(() -> {
+            followGraph.addEdge(follower.getId(), followee.getId());
+            // Rebuilt with the new followee's history on the next read
+            timelines.remove(follower.getId());
+        });
+    }
+
+    @Transactional
+    public void unfollow(String followerName, String followeeName) {
+        User follower = requireUser(followerName);
+        User followee = requireUser(followeeName);
+        followRepository.deleteByFollowerIdAndFolloweeId(follower.getId(), followee.getId());
+        afterCommit(() -> {
+            followGraph.removeEdge(follower.getId(), followee.getId());
+            timelines.remove(follower.getId());
+        });
+    }
+
+    // The in-memory graph and timelines only change once the edge change is committed, so a rollback
+    // cannot leave them ahead of the database
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // How viewer and username are connected, answered from FollowGraph without touching the database
+    public Map<String, Object> getRelationship(String viewerName, String username) {
+        User viewer = requireUser(viewerName);
+        User user = requireUser(username);
+        Map<String, Object> relationship = new HashMap<>();
+        relationship.put("username", user.getUsername());
+        relationship.put("following", follows(viewer.getId(), user.getId()));
+        relationship.put("followsYou", follows(user.getId(), viewer.getId()));
+        if (followGraph.isLoaded()) {
+            relationship.put("followers", followGraph.followerCount(user.getId()));
+            relationship.put("followingCount", followGraph.followingCount(user.getId()));
+        } else {
+            relationship.put("followers", followRepository.countByFolloweeId(user.getId()));
+            relationship.put("followingCount", followRepository.findFolloweeIds(user.getId()).size());
+        }
+        return relationship;
+    }
+
+    // Users who follow username and are followed back, sorted by username
+    public List<String> getMutuals(String username, int limit) {
+        User user = requireUser(username);
+        long[] mutualIds = FollowGraph.intersect(followeeIds(user.getId()), followerIds(user.getId()), limit);
+        List<Long> ids = new ArrayList<>(mutualIds.length);
+        for (long id : mutualIds) {
+            ids.add(id);
+        }
+        List<String> usernames = new ArrayList<>(ids.size());
+        for (User mutual : userRepository.findAllById(ids)) {
+            usernames.add(mutual.getUsername());
+        }
+        Collections.sort(usernames);
+        return usernames;
+    }
+
+    private boolean follows(Long followerId, Long followeeId) {
+        if (followGraph.isLoaded()) {
+            return followGraph.follows(followerId, followeeId);
+        }
+        return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
+
+    private long[] followerIds(Long userId) {
+        return followGraph.isLoaded() ? followGraph.followersOf(userId) : sortedIds(followRepository.findFollowerIds(userId));
+    }
+
+    private long[] followeeIds(Long userId) {
+        return followGraph.isLoaded() ? followGraph.followeesOf(userId) : sortedIds(followRepository.findFolloweeIds(userId));
+    }
+
+    private static long[] sortedIds(List<Long> ids) {
+        long[] sorted = new long[ids.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ids.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private User requireUser(String username) {
+        User user = cacheService.getUserByUsername(username);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found: " + username);
+        }
+        return user;
+    }
+
+    // Called by TweetService.createTweet once the tweet is saved
+    public void onTweetCreated(Tweet tweet) {
+        fanOutExecutor.execute(() -> {
+            try {
+                fanOut(tweet);
+            } catch (RuntimeException e) {
+                // The tweet is saved; followers whose timelines missed it will see it after the next rebuild
+                logger.warn("Fan-out of tweet {} failed", tweet.getId(), e);
+            }
+        });
+    }
+
+    private void fanOut(Tweet tweet) {
+        Long authorId = tweet.getUser().getId();
+        HomeTimeline own = timelines.get(authorId);
+        if (own != null) {
+            own.pushed.push(tweet);
+            pushes.increment();
+        }
+        // Only materialised timelines take pushes; everyone else is built from the database when they next read
+        if (timelines.isEmpty()) {
+            return;
+        }
+        if (!followGraph.isLoaded()) {
+            fanOutFromDatabase(tweet, authorId);
+            return;
+        }
+        if (followGraph.followerCount(authorId) > FANOUT_FOLLOWER_LIMIT) {
+            skippedFanOuts.increment();
+            return;
+        }
+        for (long followerId : followGraph.followersOf(authorId)) {
+            push(timelines.get(followerId), tweet, authorId);
+        }
+    }
+
+    // Only used while FollowGraph is still loading at startup
+    private void fanOutFromDatabase(Tweet tweet, Long authorId) {
+        if (followRepository.countByFolloweeId(authorId) > FANOUT_FOLLOWER_LIMIT) {
+            skippedFanOuts.increment();
+            return;
+        }
+        for (Long followerId : followRepository.findFollowerIds(authorId)) {
+            push(timelines.get(followerId), tweet, authorId);
+        }
+    }
+
+    private void push(HomeTimeline timeline, Tweet tweet, Long authorId) {
+        // A timeline built while the author was over the limit already pulls their ring
+        if (timeline != null && !timeline.pulledAuthorIds.contains(authorId)) {
+            timeline.pushed.push(tweet);
+            pushes.increment();
+        }
+    }
+
+    // One page of the user's home timeline (own tweets and followees' tweets), newest first
+    public List<Tweet> getHomeTimeline(String username, TweetCursor before, int limit) {
+        User user = cacheService.getUserByUsername(username);
+        if (user == null) {
+            return Collections.emptyList();
+        }
+
+        HomeTimeline timeline = timelines.get(user.getId());
+        if (timeline != null && System.currentTimeMillis() - timeline.builtAt < TIMELINE_MAX_AGE_MILLIS) {
+            hits.increment();
+        } else {
+            timeline = timelineBuilds.load(user.getId(), id -> build(user));
+        }
+        timeline.pushed.markReferenced();
+
+        Long beforeId = before == null ? null : before.getId();
+        List<TweetRing.Snapshot> sources = new ArrayList<>(1 + timeline.pulledAuthors.size());
+        sources.add(timeline.pushed.snapshot(beforeId, limit));
+        for (User author : timeline.pulledAuthors) {
+            sources.add(recentTweetsCache.getRecentTweets(author, beforeId, limit));
+        }
+        List<Tweet> page = merge(sources, limit);
+        if (page != null) {
+            return page;
+        }
+
+        // Deep page: some source ran out of cached tweets before the page was full
+        databaseFallbacks.increment();
+        PageRequest request = PageRequest.of(0, limit);
+        if (beforeId == null) {
+            return tweetRepository.findLatestByUsers(timeline.authorIds, request);
+        }
+        return tweetRepository.findUsersPageBefore(timeline.authorIds, beforeId, request);
+    }
+
+    // k-way merge, newest first. Returns null when a source that is not complete runs out before the
+    // page is full, because its next (uncached) tweet might belong on this page.
+    // k is 1 + the celebrities followed, which is small, so picking the head is a linear scan.
+    private List<Tweet> merge(List<TweetRing.Snapshot> sources, int limit) {
+        int[] next = new int[sources.size()];
+        List<Tweet> page = new ArrayList<>(limit);
+        while (page.size() < limit) {
+            int newest = -1;
+            for (int s = 0; s < sources.size(); s++) {
+                List<Tweet> tweets = sources.get(s).getTweets();
+                if (next[s] == tweets.size()) {
+                    if (!sources.get(s).isComplete()) {
+                        return null;
+                    }
+                    continue;
+                }
+                if (newest < 0 || TweetRing.NEWEST_FIRST.compare(tweets.get(next[s]),
+                        sources.get(newest).getTweets().get(next[newest])) < 0) {
+                    newest = s;
+                }
+            }
+            if (newest < 0) {
+                break;
+            }
+            Tweet tweet = sources.get(newest).getTweets().get(next[newest]++);
+            // An author moving across the fan-out limit can briefly appear on both sides
+            if (page.isEmpty() || !page.get(page.size() - 1).getId().equals(tweet.getId())) {
+                page.add(tweet);
+                if (newest > 0) {
+                    pulledTweets.increment();
+                }
+            }
+        }
+        return page;
+    }
+
+    private HomeTimeline build(User user) {
+        builds.increment();
+        List<Long> authorIds = new ArrayList<>();
+        Set<Long> pulledAuthorIds = new HashSet<>();
+        if (followGraph.isLoaded()) {
+            for (long followeeId : followGraph.followeesOf(user.getId())) {
+                authorIds.add(followeeId);
+                if (followGraph.followerCount(followeeId) > FANOUT_FOLLOWER_LIMIT) {
+                    pulledAuthorIds.add(followeeId);
+                }
+            }
+        } else {
+            authorIds.addAll(followRepository.findFolloweeIds(user.getId()));
+            pulledAuthorIds.addAll(
+                    followRepository.findFolloweeIdsWithMoreFollowersThan(user.getId(), FANOUT_FOLLOWER_LIMIT));
+        }
+        authorIds.add(user.getId());
+        List<User> pulledAuthors = pulledAuthorIds.isEmpty()
+                ? Collections.emptyList()
+                : userRepository.findAllById(pulledAuthorIds);
+        List<Long> pushedAuthorIds = new ArrayList<>(authorIds.size());
+        for (Long authorId : authorIds) {
+            if (!pulledAuthorIds.contains(authorId)) {
+                pushedAuthorIds.add(authorId);
+            }
+        }
+
+        // Publish the (empty) timeline before querying so tweets fanned out during the load are pushed into it
+        HomeTimeline timeline = new HomeTimeline(authorIds, pulledAuthorIds, pulledAuthors, System.currentTimeMillis());
+        if (timelines.put(user.getId(), timeline) == null) {
+            clock.add(user.getId());
+        }
+        List<Tweet> latest;
+        try {
+            latest = tweetRepository.findLatestByUsers(pushedAuthorIds, PageRequest.of(0, TIMELINE_CAPACITY));
+        } catch (RuntimeException e) {
+            timelines.remove(user.getId(), timeline);
+            throw e;
+        }
+        timeline.pushed.fill(latest, latest.size() < TIMELINE_CAPACITY);
+        evictColdTimelines();
+        return timeline;
+    }
+
+    private void evictColdTimelines() {
+        int budget = 2 * timelines.size(); // every timeline is passed over at most twice
+        while (timelines.size() > MAX_TIMELINES && budget-- > 0) {
+            Long userId = clock.poll();
+            if (userId == null) {
+                return;
+            }
+            HomeTimeline timeline = timelines.get(userId);
+            if (timeline == null) {
+                continue;
+            }
+            if (timeline.pushed.clearReferenced()) {
+                clock.add(userId);
+            } else {
+                timelines.remove(userId, timeline);
+                evictions.increment();
+                logger.debug("Evicted home timeline of cold user {}", userId);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("timelines", timelines.size());
+        stats.put("maxTimelines", MAX_TIMELINES);
+        stats.put("timelineCapacity", TIMELINE_CAPACITY);
+        stats.put("fanOutFollowerLimit", FANOUT_FOLLOWER_LIMIT);
+        stats.put("hits", hits.sum());
+        stats.put("builds", builds.sum());
+        stats.put("databaseFallbacks", databaseFallbacks.sum());
+        stats.put("pushes", pushes.sum());
+        stats.put("pulledTweets", pulledTweets.sum());
+        stats.put("skippedFanOuts", skippedFanOuts.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("fanOutQueue", fanOutExecutor.getQueue().size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+package com.auth.service;
+
+// Keyset pagination cursor: the id of the last tweet on the previous page. Tweet ids are time-ordered
+// (see TweetIdGenerator), so the next page is every tweet with a smaller id.
+public class TweetCursor {
+    private final Long id;
+
+    public TweetCursor(Long id) {
+        this.id = id;
+    }
+
+    public static TweetCursor parse(String value) {
+        try {
+            return new TweetCursor(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(id);
+    }
+}
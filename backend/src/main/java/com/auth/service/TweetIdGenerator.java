@@ -0,0 +1,49 @@
+package com.auth.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style 64-bit tweet ids, assigned in-process so inserts need no identity round-trip and can
+// be JDBC-batched. Layout: 41 bits of milliseconds since EPOCH_MILLIS (~69 years), 10 bits of node id
+// (tweets.id.node-id, one per app instance), 12 bits of sequence (4096 ids per millisecond per node).
+// Ids from one node are strictly increasing and ids from different nodes are ordered to within clock
+// skew, so "newest first" is simply "highest id first".
+// Lock-free: the last (millis, sequence) pair is one AtomicLong advanced with CAS. If the sequence runs
+// out within a millisecond, or the clock steps backwards, the pair just keeps counting forward instead
+// of waiting for the clock to catch up.
+@Component
+public class TweetIdGenerator {
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    @Value("${tweets.id.node-id:0}")
+    private long nodeId;
+
+    // (millis since EPOCH_MILLIS) << SEQUENCE_BITS | sequence, of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    @PostConstruct
+    public void checkNodeId() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("tweets.id.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = now > previous ? now : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -1,15 +1,28 @@
 package com.auth.service;
 
+import com.auth.cache.CacheService;
+import com.auth.cache.RecentTweetsCache;
+import com.auth.cache.TrendingHashtags;
+import com.auth.cache.TweetRing;
+import com.auth.cache.TweetSearchIndex;
+import com.auth.jfr.TweetReadEvent;
+import com.auth.jfr.TweetWriteEvent;
 import com.auth.model.Tweet;
 import com.auth.model.User;
 import com.auth.repository.TweetRepository;
-import com.auth.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class TweetService {
@@ -17,8 +30,64 @@ public class TweetService {
     private TweetRepository tweetRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CacheService cacheService;
+
+    @Autowired
+    private RecentTweetsCache recentTweetsCache;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private TweetSearchIndex tweetSearchIndex;
+
+    @Autowired
+    private TrendingHashtags trendingHashtags;
+
+    @Autowired
+    private TweetIdGenerator tweetIdGenerator;
+
+    private static final int MAX_SEARCH_TERMS = 8;
+
+    // Optional write-behind ingestion (see TweetWriteBehind); off by default
+    @Value("${tweets.ingest.write-behind:false}")
+    private boolean writeBehindEnabled;
+
+    @Value("${tweets.ingest.queue-capacity:10000}")
+    private int ingestQueueCapacity;
+
+    @Value("${tweets.ingest.batch-size:100}")
+    private int ingestBatchSize;
+
+    @Value("${tweets.ingest.max-linger-ms:20}")
+    private long ingestMaxLingerMillis;
+
+    @Value("${tweets.ingest.offer-timeout-ms:50}")
+    private long ingestOfferTimeoutMillis;
+
+    private TweetWriteBehind writeBehind;
+
+    @PostConstruct
+    public void startWriteBehind() {
+        if (writeBehindEnabled) {
+            writeBehind = new TweetWriteBehind(ingestQueueCapacity, ingestBatchSize, ingestMaxLingerMillis,
+                ingestOfferTimeoutMillis, tweetRepository::saveAll, this::afterSave);
+        }
+    }
+
+    @PreDestroy
+    public void flushWriteBehind() {
+        if (writeBehind != null) {
+            writeBehind.close(10000);
+        }
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind != null;
+    }
 
+    // In write-behind mode the tweet is only queued: it is returned with its id but written within the
+    // configured linger. Throws RejectedExecutionException when the queue is full.
     public Tweet createTweet(String content, String username) {
         if (content == null || content.trim().isEmpty()) {
             throw new IllegalArgumentException("Tweet content cannot be empty");
@@ -27,25 +96,124 @@ public class TweetService {
             throw new IllegalArgumentException("Tweet content cannot exceed 280 characters");
         }
 
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        TweetWriteEvent event = new TweetWriteEvent();
+        event.begin();
+        // The author is always an authenticated user, so the user cache almost always has them
+        User user = cacheService.getUserByUsername(username);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
 
         Tweet tweet = new Tweet();
+        tweet.setId(tweetIdGenerator.nextId());
         tweet.setContent(content.trim());
         tweet.setTimestamp(LocalDateTime.now());
         tweet.setUser(user);
 
-        return tweetRepository.save(tweet);
+        if (writeBehind != null) {
+            writeBehind.submit(tweet);
+            commitWrite(event, tweet, true);
+            return tweet;
+        }
+        Tweet saved = tweetRepository.save(tweet);
+        afterSave(saved);
+        commitWrite(event, saved, false);
+        return saved;
     }
 
-    public List<Tweet> getUserTweets(String username) {
-        
-        return tweetRepository.findByUserUsernameOrderByTimestampDesc(
-            username
-        );
+    private static void commitWrite(TweetWriteEvent event, Tweet tweet, boolean queued) {
+        if (event.shouldCommit()) {
+            event.tweetId = tweet.getId();
+            event.username = tweet.getUser().getUsername();
+            event.queued = queued;
+            event.commit();
+        }
     }
 
-    public List<Tweet> getTweets() {
-        return tweetRepository.findAllByOrderByTimestampDesc();
+    // Keeps the in-memory views current once a tweet is in the database
+    private void afterSave(Tweet saved) {
+        recentTweetsCache.onTweetCreated(saved);
+        timelineService.onTweetCreated(saved);
+        tweetSearchIndex.onTweetCreated(saved);
+        trendingHashtags.record(saved.getContent(), System.currentTimeMillis());
+    }
+
+    public Map<String, Object> getIngestStats() {
+        return writeBehind == null ? Map.of("writeBehind", false) : writeBehind.getStats();
+    }
+
+    // One page of a user's tweets, newest first; before == null means the first page
+    public List<Tweet> getUserTweets(String username, TweetCursor before, int limit) {
+        TweetReadEvent event = new TweetReadEvent();
+        event.begin();
+        // Resolve the author through the user cache so the tweet query can use the (user_id, id) index
+        User user = cacheService.getUserByUsername(username);
+        if (user == null) {
+            return committedRead(event, "userTweets", username, true, Collections.emptyList());
+        }
+
+        // Serve from the user's recent-tweets ring when it covers the requested page
+        TweetRing.Snapshot recent = recentTweetsCache.getRecentTweets(user, before == null ? null : before.getId(), limit);
+        if (recent.getTweets().size() == limit || recent.isComplete()) {
+            return committedRead(event, "userTweets", username, true, recent.getTweets());
+        }
+
+        PageRequest page = PageRequest.of(0, limit);
+        List<Tweet> tweets = before == null
+            ? tweetRepository.findLatestByUser(user.getId(), page)
+            : tweetRepository.findUserPageBefore(user.getId(), before.getId(), page);
+        return committedRead(event, "userTweets", username, false, tweets);
+    }
+
+    // Tweets containing every word of query, newest first
+    public List<Tweet> searchTweets(String query, TweetCursor before, int limit) {
+        Set<String> terms = TweetSearchIndex.terms(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        if (terms.size() > MAX_SEARCH_TERMS) {
+            throw new IllegalArgumentException("Search query cannot have more than " + MAX_SEARCH_TERMS + " words");
+        }
+        TweetReadEvent event = new TweetReadEvent();
+        event.begin();
+        List<Long> ids = tweetSearchIndex.search(terms, before == null ? null : before.getId(), limit);
+        if (ids.isEmpty()) {
+            return committedRead(event, "search", query, true, Collections.emptyList());
+        }
+        List<Tweet> tweets = tweetRepository.findWithUserByIdIn(ids);
+        tweets.sort(Comparator.comparing(Tweet::getId).reversed());
+        return committedRead(event, "search", query, false, tweets);
+    }
+
+    // One page of the global feed, newest first; before == null means the first page
+    public List<Tweet> getTweets(TweetCursor before, int limit) {
+        TweetReadEvent event = new TweetReadEvent();
+        event.begin();
+        PageRequest page = PageRequest.of(0, limit);
+        List<Tweet> tweets = before == null
+            ? tweetRepository.findLatest(page)
+            : tweetRepository.findPageBefore(before.getId(), page);
+        return committedRead(event, "feed", null, false, tweets);
+    }
+
+    // Emits the read's flight recorder event (when enabled) and passes the result through
+    private static List<Tweet> committedRead(TweetReadEvent event, String operation, String key, boolean fromCache, List<Tweet> tweets) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.key = key;
+            event.fromCache = fromCache;
+            event.rowsLoaded = fromCache ? 0 : tweets.size();
+            event.commit();
+        }
+        return tweets;
+    }
+
+    // Cursor for the page after this one, or null if this was the last page
+    public TweetCursor nextCursor(List<Tweet> page, int limit) {
+        if (page.size() < limit) {
+            return null;
+        }
+        Tweet last = page.get(page.size() - 1);
+        return new TweetCursor(last.getId());
     }
 }
\ No newline at end of file
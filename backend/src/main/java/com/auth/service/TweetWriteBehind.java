@@ -0,0 +1,162 @@
+package com.auth.service;
+
+import com.auth.model.Tweet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Write-behind queue for tweets: request threads enqueue validated tweets and return, one writer thread
+// drains them and inserts up to batchSize at a time in a single transaction. A batch is written as soon
+// as it is full or maxLingerMillis after its first tweet, whichever comes first, so a quiet system adds
+// at most the linger to the time before a tweet is visible. When the queue is full, submit waits up to
+// offerTimeoutMillis and then rejects the tweet (the controller answers 503), which pushes back on
+// writers instead of letting the backlog grow. close() flushes everything still queued.
+class TweetWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(TweetWriteBehind.class);
+
+    private final BlockingQueue<Tweet> queue;
+    private final int batchSize;
+    private final long maxLingerMillis;
+    private final long offerTimeoutMillis;
+    private final Function<List<Tweet>, List<Tweet>> saveBatch;
+    private final Consumer<Tweet> afterSave;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    TweetWriteBehind(int queueCapacity, int batchSize, long maxLingerMillis, long offerTimeoutMillis,
+                     Function<List<Tweet>, List<Tweet>> saveBatch, Consumer<Tweet> afterSave) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxLingerMillis = maxLingerMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.saveBatch = saveBatch;
+        this.afterSave = afterSave;
+        this.writer = new Thread(this::drain, "tweet-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void submit(Tweet tweet) {
+        boolean queued;
+        try {
+            queued = running && queue.offer(tweet, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            rejected.increment();
+            throw new RejectedExecutionException("Too many tweets are waiting to be written, try again shortly");
+        }
+        accepted.increment();
+    }
+
+    private void drain() {
+        List<Tweet> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Tweet first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+                while (batch.size() < batchSize) {
+                    // Take whatever is already queued without waiting, then linger for the rest
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    Tweet next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Only happens if the container interrupts the writer: stop accepting and flush what is queued
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Write-behind batch failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Tweet> batch) {
+        List<Tweet> saved;
+        try {
+            saved = saveBatch.apply(batch);
+        } catch (RuntimeException e) {
+            // The whole batch rolled back; retry one by one so a single bad row does not drop the others
+            logger.warn("Batch insert of {} tweets failed, retrying individually", batch.size(), e);
+            saved = new ArrayList<>(batch.size());
+            for (Tweet tweet : batch) {
+                try {
+                    saved.addAll(saveBatch.apply(Collections.singletonList(tweet)));
+                } catch (RuntimeException single) {
+                    failed.increment();
+                    logger.error("Dropping tweet by {} that could not be saved", tweet.getUser().getUsername(), single);
+                }
+            }
+        }
+        batches.increment();
+        written.add(saved.size());
+        for (Tweet tweet : saved) {
+            try {
+                afterSave.accept(tweet);
+            } catch (RuntimeException e) {
+                logger.warn("Post-save update for tweet {} failed", tweet.getId(), e);
+            }
+        }
+    }
+
+    // Stops accepting tweets and waits for the writer to flush what is queued
+    void close(long timeoutMillis) {
+        running = false;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.error("{} queued tweets were not written before shutdown", queue.size());
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("batchSize", batchSize);
+        stats.put("maxLingerMillis", maxLingerMillis);
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("batches", batches.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+}
@@ -52,58 +52,82 @@
 // }
 package com.auth.service;
 
+import com.auth.cache.BkTree;
 import com.auth.cache.CacheService;
+import com.auth.cache.RecentTweetsCache;
+import com.auth.cache.UsernameIndex;
 import com.auth.model.User;
 import com.auth.model.Tweet;
-import com.auth.repository.UserRepository;
-import com.auth.repository.TweetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class UserSearchService {
     private static final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private RecentTweetsCache recentTweetsCache;
 
     @Autowired
-    private TweetRepository tweetRepository;
+    private CacheService cacheService; // Inject CacheService for caching
 
     @Autowired
-    private CacheService cacheService; // Inject CacheService for caching
+    private UsernameIndex usernameIndex;
 
-    // Fetch user by username (first check cache, then database)
+    // Fetch user by username; CacheService falls back to the database (and remembers misses) itself
     public User getUserByUsername(String username) {
-        // Check cache first
-        User cachedUser = cacheService.getUserByUsername(username);
-        if (cachedUser != null) {
-            logger.info("User {} found in cache", username);
-            return cachedUser;
+        User user = cacheService.getUserByUsername(username);
+        if (user == null) {
+            logger.warn("User {} not found", username);
         }
+        return user;
+    }
 
-        // Fetch from database if not in cache
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            cacheService.addUserToCache(user); // Cache the user
-            logger.info("User {} fetched from database and added to cache", username);
-            return user;
+    // Autocomplete: usernames starting with prefix, most popular (cache hits) first, ties alphabetically.
+    // Only cached users have hits, so every cached match is ranked in one bounded heap; names with no
+    // hits rank last, and the global index fills the rest of the page with them in username order.
+    public List<String> searchByPrefix(String prefix, int limit) {
+        List<String> results = cacheService.findMostHitUsernamesByPrefix(prefix, limit);
+        if (results.size() < limit) {
+            Set<String> ranked = new HashSet<>(results);
+            List<String> unranked = new ArrayList<>();
+            usernameIndex.collectPrefix(prefix, limit, unranked);
+            for (String username : unranked) {
+                if (results.size() == limit) {
+                    break;
+                }
+                if (!ranked.contains(username)) {
+                    results.add(username);
+                }
+            }
         }
+        return results;
+    }
 
-        logger.warn("User {} not found in database", username);
-        return null; // User not found
+    // "Did you mean": usernames within maxDistance edits of the query, closest first, then most popular
+    public List<String> searchSimilar(String query, int maxDistance, int limit) {
+        return usernameIndex.findSimilar(query, maxDistance).stream()
+                .sorted(Comparator.comparingInt(BkTree.Match::getDistance)
+                        .thenComparing(match -> cacheService.getHitCount(match.getWord()), Comparator.reverseOrder())
+                        .thenComparing(BkTree.Match::getWord))
+                .limit(limit)
+                .map(BkTree.Match::getWord)
+                .collect(Collectors.toList());
     }
 
-    // Fetch tweets by username (optionally, implement caching here)
-    public List<Tweet> getTweetsByUser(String username) {
-        logger.info("Fetching tweets for user {}", username);
-        return tweetRepository.findByUserUsernameOrderByTimestampDesc(username);
+    // Most recent tweets of the user for the profile view, served from the per-user recent-tweets ring
+    public List<Tweet> getTweetsByUser(User user) {
+        logger.debug("Fetching tweets for user {}", user.getUsername());
+        return recentTweetsCache.getRecentTweets(user).getTweets();
     }
 }
 
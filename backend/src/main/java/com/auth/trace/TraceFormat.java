@@ -0,0 +1,80 @@
+package com.auth.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Binary layout of a request trace file (written by TraceWriter, read by TraceReader):
+//   header: MAGIC (4 bytes), VERSION (1 byte), recording start as epoch millis (8 bytes)
+//   records until end of file, each:
+//     arrival       zigzag varint, microseconds relative to the previous record's arrival
+//     method        1 byte, index into METHODS
+//     route, path, query, user   string references (below)
+//     body length, status, duration in microseconds   varints
+// Strings are interned per file: a reference is 0 for none, 1 followed by the string itself (length
+// varint + UTF-8), or 2 + the index of a string seen before. Both sides add each new string to their
+// table until it holds MAX_STRINGS, so routes, usernames and common paths cost a byte or two.
+// Records are written in completion order, so arrivals can go slightly backwards between records.
+final class TraceFormat {
+    static final byte[] MAGIC = {'T', 'W', 'T', 'R'};
+    static final int VERSION = 1;
+    static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH"};
+    static final int MAX_STRINGS = 100000;
+
+    static final int NO_STRING = 0;
+    static final int NEW_STRING = 1;
+    static final int FIRST_INDEX = 2;
+
+    private TraceFormat() {
+    }
+
+    static int methodCode(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in trace");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
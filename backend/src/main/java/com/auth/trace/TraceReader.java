@@ -0,0 +1,98 @@
+package com.auth.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reads a trace file written by TraceRecordingFilter, one TraceRecord at a time (see TraceFormat)
+public class TraceReader implements Closeable {
+    private final DataInputStream in;
+    private final long startedAtMillis;
+    private final List<String> strings = new ArrayList<>();
+    private long previousArrivalMicros;
+
+    public TraceReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        byte[] magic = new byte[TraceFormat.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, TraceFormat.MAGIC)) {
+            in.close();
+            throw new IOException(file + " is not a request trace");
+        }
+        int version = in.readUnsignedByte();
+        if (version != TraceFormat.VERSION) {
+            in.close();
+            throw new IOException("Unsupported trace version " + version + " in " + file);
+        }
+        this.startedAtMillis = in.readLong();
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    // The next record, or null at the end of the file
+    public TraceRecord next() throws IOException {
+        long arrivalDelta;
+        try {
+            arrivalDelta = TraceFormat.unzigzag(TraceFormat.readVarLong(in));
+        } catch (EOFException e) {
+            return null;
+        }
+        long arrivalMicros = previousArrivalMicros + arrivalDelta;
+        previousArrivalMicros = arrivalMicros;
+        int methodCode = in.readUnsignedByte();
+        if (methodCode >= TraceFormat.METHODS.length) {
+            throw new IOException("Unknown method code " + methodCode + " in trace");
+        }
+        String route = readRef();
+        String path = readRef();
+        String query = readRef();
+        String user = readRef();
+        long bodyLength = TraceFormat.readVarLong(in);
+        int status = (int) TraceFormat.readVarLong(in);
+        long durationMicros = TraceFormat.readVarLong(in);
+        return new TraceRecord(arrivalMicros, TraceFormat.METHODS[methodCode], route, path, query, user,
+            bodyLength, status, durationMicros);
+    }
+
+    public List<TraceRecord> readAll() throws IOException {
+        List<TraceRecord> records = new ArrayList<>();
+        TraceRecord record;
+        while ((record = next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    private String readRef() throws IOException {
+        long ref = TraceFormat.readVarLong(in);
+        if (ref == TraceFormat.NO_STRING) {
+            return null;
+        }
+        if (ref == TraceFormat.NEW_STRING) {
+            String value = TraceFormat.readString(in);
+            if (strings.size() < TraceFormat.MAX_STRINGS) {
+                strings.add(value);
+            }
+            return value;
+        }
+        int index = (int) (ref - TraceFormat.FIRST_INDEX);
+        if (index >= strings.size()) {
+            throw new IOException("Bad string reference " + ref + " in trace");
+        }
+        return strings.get(index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.auth.trace;
+
+// One recorded request. arrivalMicros is relative to the start of the recording; route is the
+// controller's path pattern (e.g. /api/tweets/user/{username}) when the request reached one, else
+// the path itself. Request bodies are never recorded, only their length.
+public class TraceRecord {
+    private final long arrivalMicros;
+    private final String method;
+    private final String route;
+    private final String path;
+    private final String query;
+    private final String user;
+    private final long bodyLength;
+    private final int status;
+    private final long durationMicros;
+
+    public TraceRecord(long arrivalMicros, String method, String route, String path, String query, String user,
+                       long bodyLength, int status, long durationMicros) {
+        this.arrivalMicros = arrivalMicros;
+        this.method = method;
+        this.route = route;
+        this.path = path;
+        this.query = query;
+        this.user = user;
+        this.bodyLength = bodyLength;
+        this.status = status;
+        this.durationMicros = durationMicros;
+    }
+
+    public long getArrivalMicros() {
+        return arrivalMicros;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public long getBodyLength() {
+        return bodyLength;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+}
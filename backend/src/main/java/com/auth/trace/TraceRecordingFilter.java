@@ -0,0 +1,104 @@
+package com.auth.trace;
+
+import com.auth.security.JwtRequestFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+// Records every /api request (method, route, path, query, user, body length, status, latency and
+// arrival time) into a compact binary trace that the loadtest module's TraceReplay can re-issue
+// against another instance. Off unless trace.recording.enabled=true; when off the filter is a single
+// null check. Like HttpMetricsFilter it wraps the whole Spring Security chain, so the recorded duration
+// is the full server-side time and requests rejected with 401 or 429 are recorded too. The user is
+// read from the attribute JwtRequestFilter sets, as the SecurityContext is cleared by then.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceRecordingFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(TraceRecordingFilter.class);
+
+    @Value("${trace.recording.enabled:false}")
+    private boolean enabled;
+
+    @Value("${trace.recording.directory:traces}")
+    private String directory;
+
+    @Value("${trace.recording.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${trace.recording.max-bytes:1073741824}")
+    private long maxBytes;
+
+    private TraceWriter writer;
+
+    // No checked exceptions: Tomcat also processes @PostConstruct on filters and rejects methods declaring them
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            String name = "requests-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".trace";
+            try {
+                writer = new TraceWriter(Paths.get(directory, name), queueCapacity, maxBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create request trace in " + directory, e);
+            }
+            logger.info("Recording request trace to {}", Paths.get(directory, name).toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer != null) {
+            writer.close(5000);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String uri = request.getRequestURI();
+        int methodCode = writer == null ? -1 : TraceFormat.methodCode(request.getMethod());
+        if (methodCode < 0 || !uri.startsWith("/api/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long arrived = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Object user = request.getAttribute(JwtRequestFilter.USERNAME_ATTRIBUTE);
+            writer.record(new TraceRecord(writer.micros(arrived), request.getMethod(),
+                route != null ? route.toString() : uri, uri, request.getQueryString(), (String) user,
+                request.getContentLengthLong(), response.getStatus(), (System.nanoTime() - arrived) / 1000));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        if (writer == null) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("recording", false);
+            return stats;
+        }
+        return writer.getStats();
+    }
+}
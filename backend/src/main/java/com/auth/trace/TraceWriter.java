@@ -0,0 +1,150 @@
+package com.auth.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Appends TraceRecords to a trace file from one background thread, so request threads only pay for an
+// ArrayBlockingQueue offer. If the writer falls behind and the queue is full, records are dropped and
+// counted rather than slowing requests down. Recording stops for good once the file reaches maxBytes.
+class TraceWriter {
+    private static final Logger logger = LoggerFactory.getLogger(TraceWriter.class);
+    private static final int DRAIN_BATCH = 1024;
+
+    private final Path file;
+    private final BlockingQueue<TraceRecord> queue;
+    private final long maxBytes;
+    private final long startNanos = System.nanoTime();
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long previousArrivalMicros;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    TraceWriter(Path file, int queueCapacity, long maxBytes) throws IOException {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.write(TraceFormat.MAGIC);
+        out.writeByte(TraceFormat.VERSION);
+        out.writeLong(System.currentTimeMillis());
+        this.thread = new Thread(this::drain, "trace-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Microseconds since the recording started, for TraceRecord.arrivalMicros
+    long micros(long nanoTime) {
+        return (nanoTime - startNanos) / 1000;
+    }
+
+    void record(TraceRecord record) {
+        if (!running || !queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        List<TraceRecord> batch = new ArrayList<>(DRAIN_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                TraceRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    out.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (TraceRecord record : batch) {
+                    write(record);
+                }
+                recorded.add(batch.size());
+                batch.clear();
+                if (out.size() >= maxBytes) {
+                    logger.warn("Trace file {} reached {} bytes, recording stopped", file, out.size());
+                    running = false;
+                    queue.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            running = false;
+        } catch (IOException e) {
+            running = false;
+            logger.error("Writing trace file {} failed, recording stopped", file, e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Closing trace file {} failed", file, e);
+            }
+        }
+    }
+
+    private void write(TraceRecord record) throws IOException {
+        TraceFormat.writeVarLong(out, TraceFormat.zigzag(record.getArrivalMicros() - previousArrivalMicros));
+        previousArrivalMicros = record.getArrivalMicros();
+        out.writeByte(TraceFormat.methodCode(record.getMethod()));
+        writeRef(record.getRoute());
+        writeRef(record.getPath());
+        writeRef(record.getQuery());
+        writeRef(record.getUser());
+        TraceFormat.writeVarLong(out, Math.max(0, record.getBodyLength()));
+        TraceFormat.writeVarLong(out, record.getStatus());
+        TraceFormat.writeVarLong(out, record.getDurationMicros());
+    }
+
+    private void writeRef(String value) throws IOException {
+        if (value == null) {
+            TraceFormat.writeVarLong(out, TraceFormat.NO_STRING);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            TraceFormat.writeVarLong(out, TraceFormat.FIRST_INDEX + index);
+            return;
+        }
+        TraceFormat.writeVarLong(out, TraceFormat.NEW_STRING);
+        TraceFormat.writeString(out, value);
+        if (strings.size() < TraceFormat.MAX_STRINGS) {
+            strings.put(value, strings.size());
+        }
+    }
+
+    // Stops accepting records and waits for the queued ones to be written
+    void close(long timeoutMillis) {
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("file", file.toString());
+        stats.put("recording", running);
+        stats.put("recorded", recorded.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", queue.size());
+        return stats;
+    }
+}
@@ -0,0 +1,222 @@
+package com.auth.cache;
+
+import com.auth.metrics.Metrics;
+import com.auth.model.User;
+import com.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// 64 threads reading, inserting and refreshing the striped user cache at once, with three times more
+// users than the cache holds so evictions run all the time. Every lookup must return the user asked
+// for (or null for names that do not exist), the cache must never grow past its bound, and the
+// counters must add up once the threads are done. The run's throughput (worker operations per second,
+// a mock repository behind the misses) is printed; CacheServiceBenchmark measures the steady state.
+class CacheServiceConcurrencyTest {
+    private static final int THREADS = 64;
+    private static final int OPS_PER_THREAD = 10000;
+    private static final int TABLE_SIZE = 30000;
+    private static final int MAX_CACHE_SIZE = 10000; // CacheService.MAX_CACHE_SIZE
+
+    private final Map<String, User> table = new ConcurrentHashMap<>();
+    private final AtomicLong refreshSlice = new AtomicLong();
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            table.put(username(i), user(i));
+        }
+
+        // stubOnly: millions of calls, nothing to verify, so don't record them
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findByUsername(anyString()))
+            .thenAnswer(call -> Optional.ofNullable(table.get(call.<String>getArgument(0))).map(this::copy));
+        // Each refresh sees a different slice of 200 users as changed
+        when(userRepository.findByUpdatedAtAfterOrderByUpdatedAtAsc(any())).thenAnswer(call -> {
+            int from = (int) (refreshSlice.getAndIncrement() * 200 % TABLE_SIZE);
+            List<User> changed = new ArrayList<>();
+            for (int i = from; i < from + 200; i++) {
+                User user = copy(table.get(username(i)));
+                user.setUpdatedAt(LocalDateTime.now());
+                changed.add(user);
+            }
+            return changed;
+        });
+        when(userRepository.findExistingUsernames(anyCollection())).thenAnswer(call ->
+            call.<Collection<String>>getArgument(0).stream().filter(table::containsKey).collect(Collectors.toList()));
+
+        cacheService = new CacheService();
+        ReflectionTestUtils.setField(cacheService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(cacheService, "usernameIndex", new UsernameIndex());
+        ReflectionTestUtils.setField(cacheService, "metrics", new Metrics());
+        cacheService.registerTimers();
+    }
+
+    @Test
+    void concurrentGetsAddsAndRefreshesStayConsistentAndBounded() throws InterruptedException {
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicLong lookups = new AtomicLong();
+        AtomicInteger maxSeenSize = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        // Thread 0 plays the scheduler: refreshCache is only ever run by one thread at a time
+        Thread refresher = new Thread(() -> {
+            try {
+                start.await();
+                while (running.get()) {
+                    cacheService.refreshCache();
+                    maxSeenSize.accumulateAndGet(size(), Math::max);
+                }
+            } catch (Throwable e) {
+                failures.add("refresh: " + e);
+            } finally {
+                done.countDown();
+            }
+        });
+        refresher.start();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 1; t < THREADS; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int op = 0; op < OPS_PER_THREAD; op++) {
+                        int dice = random.nextInt(100);
+                        // Skewed towards low ids so some users stay hot while the rest churn
+                        int id = random.nextBoolean() ? random.nextInt(2000) : random.nextInt(TABLE_SIZE);
+                        if (dice < 80) {
+                            lookups.incrementAndGet();
+                            User user = cacheService.getUserByUsername(username(id));
+                            if (user == null || !user.getUsername().equals(username(id)) || user.getId() != id) {
+                                failures.add("lookup of " + username(id) + " returned " + (user == null ? null : user.getUsername()));
+                            }
+                        } else if (dice < 85) {
+                            lookups.incrementAndGet();
+                            User user = cacheService.getUserByUsername("missing" + id);
+                            if (user != null) {
+                                failures.add("lookup of missing" + id + " returned " + user.getUsername());
+                            }
+                        } else {
+                            cacheService.addUserToCache(copy(table.get(username(id))));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add("worker: " + e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.MINUTES.toMillis(2));
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        running.set(false);
+        assertTrue(done.await(1, TimeUnit.MINUTES), "threads did not finish");
+
+        assertTrue(failures.isEmpty(), failures.size() + " failures, first: " + failures.peek());
+        assertTrue(maxSeenSize.get() <= MAX_CACHE_SIZE, "cache grew to " + maxSeenSize.get());
+        long operations = (long) (THREADS - 1) * OPS_PER_THREAD;
+        System.out.printf("%d threads: %d operations in %.2fs, %.0f ops/s%n",
+            THREADS, operations, elapsedNanos / 1e9, operations * 1e9 / elapsedNanos);
+
+        Map<String, Object> stats = cacheService.getCacheStats();
+        assertTrue(size() <= MAX_CACHE_SIZE, "cache holds " + size());
+        assertEquals(lookups.get(), stats.get("totalRequests"));
+        assertEquals(lookups.get(), (long) stats.get("cacheHits") + (long) stats.get("cacheMisses"));
+        assertTrue((long) stats.get("evictions") > 0, "the test should have forced evictions");
+
+        // The trees agree with the table: no duplicates, no lost or mixed-up users
+        List<User> cached = cacheService.getAllUsersFromCache();
+        assertEquals(size(), cached.size());
+        Set<String> seen = new HashSet<>();
+        for (User user : cached) {
+            assertTrue(seen.add(user.getUsername()), "duplicate " + user.getUsername());
+            User row = table.get(user.getUsername());
+            assertNotNull(row, "unknown user " + user.getUsername());
+            assertEquals(row.getId(), user.getId());
+        }
+        assertFalse(cached.isEmpty());
+
+        // Hit counts live on the cached nodes: evicted users take theirs with them
+        long cachedHits = 0;
+        for (User user : cached) {
+            cachedHits += cacheService.getHitCount(user.getUsername());
+        }
+        assertTrue(cachedHits <= (long) stats.get("cacheHits"), cachedHits + " hits on cached nodes");
+        for (int id = 0; id < TABLE_SIZE; id++) {
+            if (!seen.contains(username(id))) {
+                assertEquals(0, cacheService.getHitCount(username(id)), "evicted " + username(id) + " kept its hits");
+            }
+        }
+        List<?> mostAccessed = (List<?>) cacheService.getCacheStats().get("mostAccessedUsers");
+        for (Object entry : mostAccessed) {
+            assertTrue(seen.contains(((Map<?, ?>) entry).get("username")), "most accessed " + entry + " is not cached");
+        }
+    }
+
+    private int size() {
+        return ((Number) cacheService.getCacheStats().get("size")).intValue();
+    }
+
+    private static String username(int id) {
+        return String.format("user%05d", id);
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId((long) id);
+        user.setUsername(username(id));
+        user.setEmail(username(id) + "@example.com");
+        user.setPassword("hash");
+        user.setRole("USER");
+        user.setUpdatedAt(LocalDateTime.now().minusDays(1));
+        return user;
+    }
+
+    // What a fresh query would return: a new instance with the same row values
+    private User copy(User row) {
+        User user = user(row.getId().intValue());
+        user.setUpdatedAt(row.getUpdatedAt());
+        return user;
+    }
+}
@@ -0,0 +1,77 @@
+package com.auth.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingListTest {
+
+    // Snowflake layout of TweetIdGenerator: millis << 22 | node << 12 | sequence
+    private static long id(long millis, long node, long sequence) {
+        return millis << 22 | node << 12 | sequence;
+    }
+
+    @Test
+    void roundTripsSnowflakeIdsAddedSlightlyOutOfOrder() {
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        List<Long> arrivals = new ArrayList<>();
+        long millis = 90_000_000_000L;
+        for (int i = 0; i < 5000; i++) {
+            millis += random.nextInt(50);
+            long id = id(millis, random.nextInt(4), random.nextInt(10) == 0 ? random.nextInt(4096) : 0);
+            expected.add(id);
+            arrivals.add(id);
+        }
+        // Concurrent writers commit a little out of order
+        for (int i = 0; i + 1 < arrivals.size(); i += 7) {
+            long swap = arrivals.get(i);
+            arrivals.set(i, arrivals.get(i + 1));
+            arrivals.set(i + 1, swap);
+        }
+
+        PostingList list = new PostingList();
+        for (long id : arrivals) {
+            list.add(id);
+        }
+        list.add(arrivals.get(100)); // duplicates are ignored
+
+        assertEquals(expected.size(), list.size());
+        List<Long> decoded = new ArrayList<>();
+        long[] block = new long[PostingList.BLOCK_SIZE];
+        for (int b = 0; ; b++) {
+            int n = list.decodeBlock(b, block);
+            if (n == 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                decoded.add(block[i]);
+            }
+        }
+        assertEquals(new ArrayList<>(expected), decoded);
+        for (long id : expected) {
+            assertTrue(list.contains(id));
+            assertEquals(expected.contains(id + 1), list.contains(id + 1));
+        }
+        assertFalse(list.contains(id(millis + 1, 0, 0)));
+    }
+
+    @Test
+    void denseTermCostsAboutTwoBytesPerPosting() {
+        PostingList list = new PostingList();
+        long millis = 90_000_000_000L;
+        for (int i = 0; i < 100_000; i++) {
+            millis += 1 + i % 20;
+            list.add(id(millis, 3, 0));
+        }
+        double bytesPerPosting = (double) list.bytes() / list.size();
+        assertTrue(bytesPerPosting < 2.2, "bytes per posting: " + bytesPerPosting);
+    }
+}
@@ -0,0 +1,74 @@
+package com.auth.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingHashtagsTest {
+    private static final int WRITERS = 16;
+    private static final int TWEETS_PER_WRITER = 5000;
+
+    // Fewer distinct hashtags than counters per bucket, so every count is exact
+    @Test
+    void concurrentWritersAndReadersKeepExactCounts() throws InterruptedException {
+        TrendingHashtags trends = new TrendingHashtags();
+        long now = 1_000_000_000L;
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(WRITERS + 1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < TWEETS_PER_WRITER; i++) {
+                        // Spread over the minute, so the writers cross 5 minute buckets of the 1h window too
+                        trends.record("tweet #all #tag" + (i % 10), now + i % 60_000);
+                    }
+                } catch (Throwable e) {
+                    failures.add("writer: " + e);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            try {
+                start.await();
+                // The clock moves past the snapshot TTL at every call, so each one rebuilds the windows
+                // while the writers run
+                for (int i = 0; i < 18 && done.getCount() > 1; i++) {
+                    for (TrendingHashtags.Window window : TrendingHashtags.Window.values()) {
+                        trends.getTrends(window, 5, now + i * 10_000L);
+                    }
+                }
+            } catch (Throwable e) {
+                failures.add("reader: " + e);
+            } finally {
+                done.countDown();
+            }
+        }));
+        threads.forEach(Thread::start);
+        start.countDown();
+        assertTrue(done.await(1, TimeUnit.MINUTES), "threads did not finish");
+        assertTrue(failures.isEmpty(), failures.size() + " failures, first: " + failures.peek());
+
+        for (TrendingHashtags.Window window : TrendingHashtags.Window.values()) {
+            List<Map<String, Object>> top = trends.getTrends(window, 3, now + 190_000);
+            assertEquals("#all", top.get(0).get("hashtag"), window.getLabel());
+            assertEquals((long) WRITERS * TWEETS_PER_WRITER, top.get(0).get("count"), window.getLabel());
+            assertEquals("#tag0", top.get(1).get("hashtag"), window.getLabel());
+            assertEquals((long) WRITERS * TWEETS_PER_WRITER / 10, top.get(1).get("count"), window.getLabel());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.auth.cache;
+
+import com.auth.model.Tweet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TweetRingTest {
+
+    private static Tweet tweet(long id) {
+        Tweet tweet = new Tweet();
+        tweet.setId(id);
+        tweet.setContent("tweet " + id);
+        return tweet;
+    }
+
+    private static List<Long> ids(TweetRing.Snapshot snapshot) {
+        return snapshot.getTweets().stream().map(Tweet::getId).collect(Collectors.toList());
+    }
+
+    private static List<Tweet> tweets(long... ids) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (long id : ids) {
+            tweets.add(tweet(id));
+        }
+        return tweets;
+    }
+
+    @Test
+    void pushesInOrderAreKeptNewestFirst() {
+        TweetRing ring = new TweetRing(10);
+        for (long id = 1; id <= 5; id++) {
+            ring.push(tweet(id));
+        }
+        assertEquals(Arrays.asList(5L, 4L, 3L, 2L, 1L), ids(ring.snapshot()));
+    }
+
+    @Test
+    void pushesOutOfOrderAreBubbledIntoPlace() {
+        TweetRing ring = new TweetRing(10);
+        for (long id : new long[] {2, 1, 4, 3, 7, 5, 6}) {
+            ring.push(tweet(id));
+        }
+        assertEquals(Arrays.asList(7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(ring.snapshot()));
+    }
+
+    @Test
+    void fillMergesTheDatabasePageWithTweetsPushedDuringTheLoad() {
+        TweetRing ring = new TweetRing(10);
+        assertFalse(ring.isLoaded());
+        ring.push(tweet(6));
+        ring.push(tweet(4)); // also in the page: not duplicated
+        ring.fill(tweets(5, 4, 2, 1), true);
+
+        TweetRing.Snapshot snapshot = ring.snapshot();
+        assertTrue(ring.isLoaded());
+        assertEquals(Arrays.asList(6L, 5L, 4L, 2L, 1L), ids(snapshot));
+        assertTrue(snapshot.isComplete());
+    }
+
+    @Test
+    void overflowKeepsTheNewestAndIsNoLongerComplete() {
+        TweetRing ring = new TweetRing(3);
+        ring.fill(tweets(3, 2, 1), true);
+        assertTrue(ring.snapshot().isComplete());
+
+        ring.push(tweet(5));
+        ring.push(tweet(4));
+        ring.push(tweet(0)); // older than everything held: dropped
+        TweetRing.Snapshot snapshot = ring.snapshot();
+        assertEquals(Arrays.asList(5L, 4L, 3L), ids(snapshot));
+        assertFalse(snapshot.isComplete());
+    }
+
+    @Test
+    void pagesWithBeforeIdWithoutRepeatsOrGaps() {
+        TweetRing ring = new TweetRing(20);
+        ring.fill(tweets(10, 9, 8, 7, 6, 5, 4, 3, 2, 1), true);
+
+        TweetRing.Snapshot first = ring.snapshot(null, 4);
+        assertEquals(Arrays.asList(10L, 9L, 8L, 7L), ids(first));
+        assertFalse(first.isComplete());
+        TweetRing.Snapshot second = ring.snapshot(7L, 4);
+        assertEquals(Arrays.asList(6L, 5L, 4L, 3L), ids(second));
+        TweetRing.Snapshot last = ring.snapshot(3L, 4);
+        assertEquals(Arrays.asList(2L, 1L), ids(last));
+        assertTrue(last.isComplete());
+
+        // A cursor that is not in the ring starts at the next older tweet
+        assertEquals(Arrays.asList(4L, 3L), ids(ring.snapshot(5L, 2)));
+        assertTrue(ring.snapshot(1L, 4).getTweets().isEmpty());
+    }
+}
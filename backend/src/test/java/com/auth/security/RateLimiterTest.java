@@ -0,0 +1,69 @@
+package com.auth.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final int MAX_BUCKETS_PER_GROUP = 50000; // RateLimiter.MAX_BUCKETS_PER_GROUP
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter();
+        // auth: 10 tokens, one more every 5 seconds
+        ReflectionTestUtils.setField(rateLimiter, "environment", new MockEnvironment());
+        rateLimiter.configure();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long stat(String key) {
+        return ((Number) ((Map<String, Object>) rateLimiter.getStats().get("auth")).get(key)).longValue();
+    }
+
+    @Test
+    void addressSprayDoesNotLockNewcomersOutOnceTheGroupIsFull() {
+        long now = System.nanoTime();
+        // Every sprayed address spends its whole burst, so none of their buckets can be swept
+        for (int ip = 0; ip < MAX_BUCKETS_PER_GROUP + 500; ip++) {
+            for (int i = 0; i < 10; i++) {
+                rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "ip:spray-" + ip, now);
+            }
+        }
+        assertEquals(MAX_BUCKETS_PER_GROUP, stat("clients"));
+        assertTrue(stat("overflowed") > 0);
+
+        // The 500 overflowed addresses drained only the stripes they hash to
+        int allowed = 0;
+        for (int newcomer = 0; newcomer < 100; newcomer++) {
+            if (rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "ip:newcomer-" + newcomer, now) == 0) {
+                allowed++;
+            }
+        }
+        assertTrue(allowed >= 40, allowed + " of 100 newcomers allowed");
+    }
+
+    @Test
+    void fullGroupSweepsIdleBucketsOnDemand() {
+        long now = System.nanoTime();
+        for (int ip = 0; ip < MAX_BUCKETS_PER_GROUP; ip++) {
+            rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "ip:" + ip, now);
+        }
+        assertEquals(MAX_BUCKETS_PER_GROUP, stat("clients"));
+
+        // Five seconds later every one of them has refilled: the next new client makes room without
+        // waiting for the scheduled sweep
+        long later = now + 5 * SECOND;
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "ip:newcomer", later));
+        assertEquals(1, stat("clients"));
+        assertEquals(0, stat("overflowed"));
+    }
+}
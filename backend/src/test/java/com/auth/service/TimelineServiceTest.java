@@ -0,0 +1,136 @@
+package com.auth.service;
+
+import com.auth.cache.CacheService;
+import com.auth.cache.FollowGraph;
+import com.auth.cache.RecentTweetsCache;
+import com.auth.cache.TweetRing;
+import com.auth.model.Follow;
+import com.auth.model.Tweet;
+import com.auth.model.User;
+import com.auth.repository.FollowRepository;
+import com.auth.repository.TweetRepository;
+import com.auth.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// alice follows bob (pushed on write) and celeb, who has more than FANOUT_FOLLOWER_LIMIT followers
+// and is merged in from the recent-tweets ring at read time
+class TimelineServiceTest {
+    private final User alice = user(1, "alice");
+    private final User bob = user(2, "bob");
+    private final User celeb = user(3, "celeb");
+
+    private final FollowRepository followRepository = mock(FollowRepository.class);
+    private final TweetRepository tweetRepository = mock(TweetRepository.class);
+    private final FollowGraph followGraph = new FollowGraph();
+    private final TweetRing celebRing = new TweetRing(100);
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        CacheService cacheService = mock(CacheService.class);
+        for (User user : Arrays.asList(alice, bob, celeb)) {
+            when(cacheService.getUserByUsername(user.getUsername())).thenReturn(user);
+        }
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(any())).thenReturn(Collections.singletonList(celeb));
+
+        when(followRepository.findPageAfter(anyLong(), any())).thenReturn(Collections.<Follow>emptyList());
+        ReflectionTestUtils.setField(followGraph, "followRepository", followRepository);
+        followGraph.load();
+        followGraph.addEdge(alice.getId(), bob.getId());
+        followGraph.addEdge(alice.getId(), celeb.getId());
+        for (long fan = 100; fan < 100 + TimelineService.FANOUT_FOLLOWER_LIMIT; fan++) {
+            followGraph.addEdge(fan, celeb.getId());
+        }
+
+        // Ids interleave across the three authors
+        when(tweetRepository.findLatestByUsers(anyCollection(), any())).thenReturn(tweets(bob, 10, 8, 7, 4, 1));
+        celebRing.fill(tweets(celeb, 9, 6, 5, 3), true);
+        RecentTweetsCache recentTweetsCache = mock(RecentTweetsCache.class);
+        when(recentTweetsCache.getRecentTweets(eq(celeb), isNull(), anyInt()))
+            .thenAnswer(call -> celebRing.snapshot(null, call.<Integer>getArgument(2)));
+        when(recentTweetsCache.getRecentTweets(eq(celeb), anyLong(), anyInt()))
+            .thenAnswer(call -> celebRing.snapshot(call.<Long>getArgument(1), call.<Integer>getArgument(2)));
+
+        timelineService = new TimelineService();
+        ReflectionTestUtils.setField(timelineService, "followRepository", followRepository);
+        ReflectionTestUtils.setField(timelineService, "tweetRepository", tweetRepository);
+        ReflectionTestUtils.setField(timelineService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(timelineService, "cacheService", cacheService);
+        ReflectionTestUtils.setField(timelineService, "recentTweetsCache", recentTweetsCache);
+        ReflectionTestUtils.setField(timelineService, "followGraph", followGraph);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timelineService.shutdown();
+    }
+
+    @Test
+    void mergedHomeTimelinePagesNewestFirst() {
+        List<Tweet> first = timelineService.getHomeTimeline("alice", null, 4);
+        assertEquals(Arrays.asList(10L, 9L, 8L, 7L), ids(first));
+
+        List<Tweet> second = timelineService.getHomeTimeline("alice", new TweetCursor(7L), 4);
+        assertEquals(Arrays.asList(6L, 5L, 4L, 3L), ids(second));
+
+        List<Tweet> last = timelineService.getHomeTimeline("alice", new TweetCursor(3L), 4);
+        assertEquals(Collections.singletonList(1L), ids(last));
+        assertEquals(0L, timelineService.getStats().get("databaseFallbacks"));
+    }
+
+    @Test
+    void followIsIdempotentWhenAConcurrentFollowWinsTheInsert() {
+        // Both requests passed the exists check; this one loses the race on the unique key
+        when(followRepository.existsByFollowerIdAndFolloweeId(bob.getId(), alice.getId())).thenReturn(false);
+        when(followRepository.saveAndFlush(any(Follow.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_follows_follower_followee"));
+
+        timelineService.follow("bob", "alice");
+        assertTrue(followGraph.follows(bob.getId(), alice.getId()));
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getId).collect(Collectors.toList());
+    }
+
+    private static List<Tweet> tweets(User author, long... ids) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (long id : ids) {
+            Tweet tweet = new Tweet();
+            tweet.setId(id);
+            tweet.setContent("tweet " + id);
+            tweet.setUser(author);
+            tweets.add(tweet);
+        }
+        return tweets;
+    }
+
+    private static User user(long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,69 @@
+package com.auth.service;
+
+import com.auth.cache.CacheService;
+import com.auth.cache.UsernameIndex;
+import com.auth.metrics.Metrics;
+import com.auth.model.User;
+import com.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserSearchServiceTest {
+    private static final int USERS = 5000;
+
+    private CacheService cacheService;
+    private UserSearchService userSearchService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        UsernameIndex usernameIndex = new UsernameIndex();
+        cacheService = new CacheService();
+        ReflectionTestUtils.setField(cacheService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(cacheService, "usernameIndex", usernameIndex);
+        ReflectionTestUtils.setField(cacheService, "metrics", new Metrics());
+        cacheService.registerTimers();
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername(String.format("user%04d", i));
+            cacheService.addUserToCache(user);
+            usernameIndex.add(user.getUsername());
+        }
+        userSearchService = new UserSearchService();
+        ReflectionTestUtils.setField(userSearchService, "cacheService", cacheService);
+        ReflectionTestUtils.setField(userSearchService, "usernameIndex", usernameIndex);
+    }
+
+    private void hit(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            cacheService.getUserByUsername(username);
+        }
+    }
+
+    @Test
+    void shortPrefixRanksEveryCachedMatchByHits() {
+        // Far past the first few hundred alphabetical matches of any segment
+        hit("user4999", 5);
+        hit("user3000", 3);
+        hit("user0001", 3);
+        hit("user2500", 1);
+
+        assertEquals(Arrays.asList("user4999", "user0001", "user3000"), userSearchService.searchByPrefix("u", 3));
+        // Names without hits fill the page alphabetically, without repeating ranked ones
+        assertEquals(Arrays.asList("user4999", "user0001", "user3000", "user2500", "user0000", "user0002"),
+            userSearchService.searchByPrefix("user", 6));
+        assertEquals(Arrays.asList("user3000", "user3001"), userSearchService.searchByPrefix("user300", 2));
+    }
+}
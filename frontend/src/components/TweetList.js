@@ -126,11 +126,14 @@ import {
   Snackbar 
 } from '@mui/material';
 
+const PAGE_SIZE = 20;
+
 const TweetList = ({ tweets, setTweets }) => {
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
   const [openSnackbar, setOpenSnackbar] = useState(false);
   const [hasMore, setHasMore] = useState(true);
+  const [cursor, setCursor] = useState(null); // X-Next-Cursor of the last page fetched
 
   const fetchTweets = useCallback(async () => {
     if (loading || !hasMore) return;
@@ -143,12 +146,16 @@ const TweetList = ({ tweets, setTweets }) => {
         headers: {
           'Authorization': `Bearer ${localStorage.getItem('token')}`,
         },
+        params: cursor ? { before: cursor, limit: PAGE_SIZE } : { limit: PAGE_SIZE },
       });
 
       const newTweets = response.data || [];
-      if (newTweets.length === 0) {
+      const nextCursor = response.headers['x-next-cursor'];
+      setCursor(nextCursor || null);
+      if (!nextCursor) {
         setHasMore(false);
-      } else {
+      }
+      if (newTweets.length > 0) {
         setTweets((prevTweets) => {
           const newTweetMap = new Map();
           [...prevTweets, ...newTweets].forEach((tweet) => {
@@ -164,7 +171,7 @@ const TweetList = ({ tweets, setTweets }) => {
     } finally {
       setLoading(false);
     }
-  }, [loading, hasMore, setTweets]);
+  }, [loading, hasMore, cursor, setTweets]);
 
   const throttledHandleScroll = useMemo(
     () =>